@@ -1,6 +1,9 @@
 package com.nhom.weatherdesktop;
 
+import com.nhom.weatherdesktop.timeseries.TimeSeriesStore;
 import com.nhom.weatherdesktop.util.AppConfig;
+import com.nhom.weatherdesktop.util.TaskExecutor;
+import com.nhom.weatherdesktop.websocket.StompClient;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -11,6 +14,9 @@ import java.io.IOException;
 public class WeatherDesktopApplication extends Application {
     @Override
     public void start(Stage stage) throws IOException {
+        // Record every live reading, including the ones no screen is showing
+        TimeSeriesStore.getInstance().attach(StompClient.getInstance());
+        
         // Load login FXML
         FXMLLoader fxmlLoader = new FXMLLoader(WeatherDesktopApplication.class.getResource("/fxml/auth/login.fxml"));
         
@@ -26,6 +32,13 @@ public class WeatherDesktopApplication extends Application {
         // Show the stage
         stage.show();
     }
+    
+    @Override
+    public void stop() {
+        // Cancel any background work still running when the window is closed
+        TaskExecutor.getInstance().shutdown();
+        TimeSeriesStore.getInstance().close();
+    }
 
     public static void main(String[] args) {
         launch();
@@ -0,0 +1,639 @@
+package com.nhom.weatherdesktop.chart;
+
+import com.nhom.weatherdesktop.timeseries.MetricSeries;
+import com.nhom.weatherdesktop.util.TimeUtil;
+import javafx.application.Platform;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Time-series chart drawn on a single Canvas
+ * Unlike LineChart/BarChart there is no node per point: points live in primitive buffers and a
+ * redraw only walks the visible range, collapsed to one min/max column per pixel, so weeks of
+ * minute readings stay smooth. Scroll to zoom, drag to pan, double-click to fit everything;
+ * the crosshair shows the nearest point. While the view shows the newest point, appended
+ * points scroll it along. JavaFX thread only
+ */
+public final class TimeSeriesChart extends Region {
+    
+    public enum ChartType {
+        LINE,
+        BAR
+    }
+    
+    // Same look as the .chart rules in dashboard.css
+    private static final Color SERIES_COLOR = Color.web("#0067C0");
+    private static final Color GRID_COLOR = Color.rgb(0, 0, 0, 0.1);
+    private static final Color TICK_COLOR = Color.web("#666666");
+    private static final Color LABEL_COLOR = Color.web("#333333");
+    private static final Color PLOT_BACKGROUND = Color.rgb(255, 255, 255, 0.5);
+    private static final Color CROSSHAIR_COLOR = Color.rgb(0, 0, 0, 0.35);
+    private static final Font TICK_FONT = Font.font(12);
+    private static final Font LABEL_FONT = Font.font(13);
+    
+    private static final double LEFT = 64;
+    private static final double RIGHT = 12;
+    private static final double TOP = 12;
+    private static final double BOTTOM = 28;
+    private static final double MIN_TICK_SPACING = 110;
+    private static final double ZOOM_FACTOR = 1.2;
+    private static final long MINUTE = 60_000;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+    private static final long MIN_VIEW_SPAN = 10 * MINUTE;
+    // Every step below a day divides a day, so ticks can be aligned to local midnight
+    private static final long[] TIME_STEPS = {
+        MINUTE, 5 * MINUTE, 15 * MINUTE, 30 * MINUTE, HOUR, 3 * HOUR, 6 * HOUR, 12 * HOUR, DAY, 2 * DAY, 7 * DAY, 28 * DAY
+    };
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("EEE dd", Locale.ENGLISH);
+    private static final DateTimeFormatter CROSSHAIR_FORMAT = DateTimeFormatter.ofPattern("EEE dd MMM HH:mm", Locale.ENGLISH);
+    private static final DecimalFormat VALUE_FORMAT = decimalFormat("0.#");
+    private static final DecimalFormat TICK_VALUE_FORMAT = decimalFormat("0.##");
+    
+    private final Canvas canvas = new Canvas();
+    
+    private long[] timestamps = new long[0];
+    private float[] values = new float[0];
+    private int size;
+    
+    private ChartType chartType = ChartType.LINE;
+    private String yLabel = "";
+    
+    // Visible time range in epoch millis; recomputed from the data while fitted
+    private double viewStart;
+    private double viewEnd;
+    private boolean fitted = true;
+    
+    private double crosshairX = Double.NaN;
+    private double dragX = Double.NaN;
+    private double dragViewStart;
+    private boolean redrawPending;
+    
+    public TimeSeriesChart() {
+        getStyleClass().add("time-series-chart");
+        getChildren().add(canvas);
+        
+        setOnScroll(this::handleScroll);
+        setOnMousePressed(this::handleMousePressed);
+        setOnMouseDragged(this::handleMouseDragged);
+        setOnMouseReleased(e -> dragX = Double.NaN);
+        setOnMouseMoved(e -> {
+            crosshairX = e.getX();
+            requestRedraw();
+        });
+        setOnMouseExited(e -> {
+            crosshairX = Double.NaN;
+            requestRedraw();
+        });
+        setOnMouseClicked(e -> {
+            if (e.getButton() == MouseButton.PRIMARY && e.getClickCount() == 2) {
+                fit();
+            }
+        });
+    }
+    
+    // ========== Data ==========
+    
+    /**
+     * Show the given points (timestamps increasing); the arrays are used as they are, not copied
+     */
+    public void setData(long[] timestamps, float[] values) {
+        this.timestamps = timestamps;
+        this.values = values;
+        this.size = Math.min(timestamps.length, values.length);
+        fit();
+    }
+    
+    public void setData(MetricSeries series) {
+        setData(series.timestamps(), series.values());
+    }
+    
+    /**
+     * Add a live point; one not newer than the last point, or NaN, is ignored
+     */
+    public void append(long timestamp, float value) {
+        if (Float.isNaN(value) || (size > 0 && timestamp <= timestamps[size - 1])) {
+            return;
+        }
+        
+        if (size == timestamps.length || size == values.length) {
+            int capacity = Math.max(16, size + (size >> 1));
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        
+        // A view showing the newest point keeps showing it
+        if (!fitted && size > 0 && viewEnd >= timestamps[size - 1]) {
+            double shift = timestamp - timestamps[size - 1];
+            viewStart += shift;
+            viewEnd += shift;
+        }
+        
+        timestamps[size] = timestamp;
+        values[size] = value;
+        size++;
+        requestRedraw();
+    }
+    
+    public void clear() {
+        timestamps = new long[0];
+        values = new float[0];
+        size = 0;
+        fit();
+    }
+    
+    public int getSize() {
+        return size;
+    }
+    
+    /**
+     * Show all points
+     */
+    public void fit() {
+        fitted = true;
+        requestRedraw();
+    }
+    
+    public ChartType getChartType() {
+        return chartType;
+    }
+    
+    public void setChartType(ChartType chartType) {
+        this.chartType = chartType;
+        requestRedraw();
+    }
+    
+    public String getYLabel() {
+        return yLabel;
+    }
+    
+    public void setYLabel(String yLabel) {
+        this.yLabel = yLabel != null ? yLabel : "";
+        requestRedraw();
+    }
+    
+    // ========== Layout ==========
+    
+    @Override
+    protected void layoutChildren() {
+        double width = snapSizeX(getWidth());
+        double height = snapSizeY(getHeight());
+        if (canvas.getWidth() != width || canvas.getHeight() != height) {
+            canvas.setWidth(width);
+            canvas.setHeight(height);
+        }
+        draw();
+    }
+    
+    @Override
+    protected double computePrefWidth(double height) {
+        return 480;
+    }
+    
+    @Override
+    protected double computePrefHeight(double width) {
+        return 300;
+    }
+    
+    @Override
+    protected double computeMinWidth(double height) {
+        return LEFT + RIGHT + 40;
+    }
+    
+    @Override
+    protected double computeMinHeight(double width) {
+        return TOP + BOTTOM + 40;
+    }
+    
+    /**
+     * Redraw once on the next pulse, however many changes come in before it
+     */
+    private void requestRedraw() {
+        if (!redrawPending) {
+            redrawPending = true;
+            Platform.runLater(() -> {
+                redrawPending = false;
+                draw();
+            });
+        }
+    }
+    
+    // ========== Interaction ==========
+    
+    private void handleScroll(ScrollEvent e) {
+        if (size == 0 || e.getDeltaY() == 0) {
+            return;
+        }
+        double factor = e.getDeltaY() > 0 ? 1 / ZOOM_FACTOR : ZOOM_FACTOR;
+        double anchor = pixelToTime(Math.max(LEFT, Math.min(e.getX(), LEFT + plotWidth())));
+        double span = Math.max(MIN_VIEW_SPAN, (viewEnd - viewStart) * factor);
+        double ratio = (anchor - viewStart) / (viewEnd - viewStart);
+        setView(anchor - span * ratio, anchor + span * (1 - ratio));
+        e.consume();
+    }
+    
+    private void handleMousePressed(MouseEvent e) {
+        if (e.getButton() == MouseButton.PRIMARY) {
+            dragX = e.getX();
+            dragViewStart = viewStart;
+        }
+    }
+    
+    private void handleMouseDragged(MouseEvent e) {
+        if (Double.isNaN(dragX) || size == 0) {
+            return;
+        }
+        double span = viewEnd - viewStart;
+        double start = dragViewStart - (e.getX() - dragX) / plotWidth() * span;
+        crosshairX = e.getX();
+        setView(start, start + span);
+    }
+    
+    /**
+     * Move the view, kept within the data; zooming out past all of it fits again
+     */
+    private void setView(double start, double end) {
+        double first = fittedStart();
+        double last = fittedEnd();
+        double span = end - start;
+        if (span >= last - first) {
+            fit();
+            return;
+        }
+        if (start < first) {
+            start = first;
+            end = first + span;
+        } else if (end > last) {
+            end = last;
+            start = last - span;
+        }
+        viewStart = start;
+        viewEnd = end;
+        fitted = false;
+        requestRedraw();
+    }
+    
+    private double fittedStart() {
+        return timestamps[0] - margin();
+    }
+    
+    private double fittedEnd() {
+        return timestamps[size - 1] + margin();
+    }
+    
+    /**
+     * Room around the data: half a bar for bars, a little air for lines
+     */
+    private double margin() {
+        double span = timestamps[size - 1] - timestamps[0];
+        if (span == 0) {
+            return chartType == ChartType.BAR ? DAY / 2.0 : HOUR;
+        }
+        return chartType == ChartType.BAR ? span / Math.max(1, size - 1) / 2 : span * 0.02;
+    }
+    
+    // ========== Drawing ==========
+    
+    private void draw() {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        gc.clearRect(0, 0, width, height);
+        
+        double plotWidth = plotWidth();
+        double plotHeight = plotHeight();
+        if (plotWidth <= 10 || plotHeight <= 10) {
+            return;
+        }
+        
+        gc.setFill(PLOT_BACKGROUND);
+        gc.fillRect(LEFT, TOP, plotWidth, plotHeight);
+        drawYLabel(gc, plotHeight);
+        
+        if (size == 0) {
+            gc.setFill(TICK_COLOR);
+            gc.setFont(LABEL_FONT);
+            gc.setTextAlign(TextAlignment.CENTER);
+            gc.setTextBaseline(VPos.CENTER);
+            gc.fillText("No data", LEFT + plotWidth / 2, TOP + plotHeight / 2);
+            return;
+        }
+        
+        if (fitted) {
+            viewStart = fittedStart();
+            viewEnd = fittedEnd();
+        }
+        
+        // One point beyond each edge so lines run to the border
+        int from = Math.max(0, indexAfter(viewStart) - 1);
+        int to = Math.min(size, indexAfter(viewEnd) + 1);
+        double[] range = valueRange(from, to);
+        
+        drawTimeAxis(gc, plotHeight);
+        drawValueAxis(gc, range, plotWidth);
+        
+        gc.save();
+        gc.beginPath();
+        gc.rect(LEFT, TOP, plotWidth, plotHeight);
+        gc.clip();
+        if (chartType == ChartType.BAR) {
+            drawBars(gc, from, to, range);
+        } else {
+            drawLine(gc, from, to, range, plotWidth);
+        }
+        gc.restore();
+        
+        drawCrosshair(gc, from, to, range, plotWidth, plotHeight);
+    }
+    
+    /**
+     * Polyline through the visible points; all points falling in one pixel column become a single
+     * vertical min/max stroke, so the work per redraw is bounded by the width, not the data
+     */
+    private void drawLine(GraphicsContext gc, int from, int to, double[] range, double plotWidth) {
+        gc.setStroke(SERIES_COLOR);
+        gc.setLineWidth(2);
+        gc.beginPath();
+        
+        boolean started = false;
+        long column = Long.MIN_VALUE;
+        double columnX = 0;
+        double first = 0;
+        double low = 0;
+        double high = 0;
+        double last = 0;
+        for (int i = from; i <= to; i++) {
+            double x = i < to ? timeToPixel(timestamps[i]) : 0;
+            long c = i < to ? (long) Math.floor(x) : Long.MAX_VALUE;
+            
+            if (c != column && column != Long.MIN_VALUE) {
+                if (started) {
+                    gc.lineTo(columnX, first);
+                } else {
+                    gc.moveTo(columnX, first);
+                    started = true;
+                }
+                if (high - low >= 1) {
+                    gc.lineTo(columnX, low);
+                    gc.lineTo(columnX, high);
+                }
+                gc.lineTo(columnX, last);
+            }
+            if (i == to) {
+                break;
+            }
+            
+            double y = valueToPixel(values[i], range);
+            if (c != column) {
+                column = c;
+                columnX = x;
+                first = y;
+                low = y;
+                high = y;
+            } else {
+                low = Math.min(low, y);
+                high = Math.max(high, y);
+            }
+            last = y;
+        }
+        gc.stroke();
+        
+        // Few points: mark each one, like the line chart symbols
+        if ((to - from) * 12 < plotWidth) {
+            gc.setFill(Color.WHITE);
+            for (int i = from; i < to; i++) {
+                double x = timeToPixel(timestamps[i]);
+                double y = valueToPixel(values[i], range);
+                gc.fillOval(x - 4, y - 4, 8, 8);
+                gc.strokeOval(x - 4, y - 4, 8, 8);
+            }
+        }
+    }
+    
+    /**
+     * One bar per point, as wide as the spacing allows; dense bars share a pixel column and
+     * only the tallest of a column is drawn
+     */
+    private void drawBars(GraphicsContext gc, int from, int to, double[] range) {
+        double spacing = Double.MAX_VALUE;
+        for (int i = from + 1; i < to; i++) {
+            spacing = Math.min(spacing, timeToPixel(timestamps[i]) - timeToPixel(timestamps[i - 1]));
+        }
+        if (spacing == Double.MAX_VALUE) {
+            spacing = plotWidth() / 3;
+        }
+        double barWidth = Math.max(1, Math.min(48, spacing * 0.7));
+        double base = valueToPixel(Math.max(range[0], Math.min(0, range[1])), range);
+        
+        gc.setFill(SERIES_COLOR);
+        long column = Long.MIN_VALUE;
+        double columnX = 0;
+        double top = 0;
+        for (int i = from; i <= to; i++) {
+            double x = i < to ? timeToPixel(timestamps[i]) : 0;
+            long c = i < to ? (long) Math.floor(x / barWidth) : Long.MAX_VALUE;
+            if (c != column && column != Long.MIN_VALUE) {
+                gc.fillRect(columnX - barWidth / 2, Math.min(top, base), barWidth, Math.abs(base - top));
+            }
+            if (i == to) {
+                break;
+            }
+            double y = valueToPixel(values[i], range);
+            if (c != column) {
+                column = c;
+                columnX = x;
+                top = y;
+            } else if (Math.abs(base - y) > Math.abs(base - top)) {
+                top = y;
+            }
+        }
+    }
+    
+    private void drawYLabel(GraphicsContext gc, double plotHeight) {
+        if (yLabel.isEmpty()) {
+            return;
+        }
+        gc.save();
+        gc.translate(14, TOP + plotHeight / 2);
+        gc.rotate(-90);
+        gc.setFill(LABEL_COLOR);
+        gc.setFont(LABEL_FONT);
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setTextBaseline(VPos.CENTER);
+        gc.fillText(yLabel, 0, 0);
+        gc.restore();
+    }
+    
+    private void drawValueAxis(GraphicsContext gc, double[] range, double plotWidth) {
+        gc.setStroke(GRID_COLOR);
+        gc.setLineWidth(1);
+        gc.setFill(TICK_COLOR);
+        gc.setFont(TICK_FONT);
+        gc.setTextAlign(TextAlignment.RIGHT);
+        gc.setTextBaseline(VPos.CENTER);
+        
+        double step = range[2];
+        for (double value = range[0]; value <= range[1] + step / 2; value += step) {
+            double y = Math.round(valueToPixel(value, range)) + 0.5;
+            gc.strokeLine(LEFT, y, LEFT + plotWidth, y);
+            gc.fillText(TICK_VALUE_FORMAT.format(value), LEFT - 6, y);
+        }
+    }
+    
+    private void drawTimeAxis(GraphicsContext gc, double plotHeight) {
+        double span = viewEnd - viewStart;
+        long step = TIME_STEPS[TIME_STEPS.length - 1];
+        for (long candidate : TIME_STEPS) {
+            if (candidate / span * plotWidth() >= MIN_TICK_SPACING) {
+                step = candidate;
+                break;
+            }
+        }
+        
+        gc.setStroke(GRID_COLOR);
+        gc.setLineWidth(1);
+        gc.setFill(TICK_COLOR);
+        gc.setFont(TICK_FONT);
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setTextBaseline(VPos.TOP);
+        
+        // First tick: local midnight of the first visible day, advanced to the view
+        long midnight = Instant.ofEpochMilli((long) viewStart).atZone(TimeUtil.VIETNAM_ZONE)
+            .toLocalDate().atStartOfDay(TimeUtil.VIETNAM_ZONE).toInstant().toEpochMilli();
+        long tick = midnight + (long) Math.ceil((viewStart - midnight) / step) * step;
+        for (; tick <= viewEnd; tick += step) {
+            double x = Math.round(timeToPixel(tick)) + 0.5;
+            gc.strokeLine(x, TOP, x, TOP + plotHeight);
+            
+            ZonedDateTime time = Instant.ofEpochMilli(tick).atZone(TimeUtil.VIETNAM_ZONE);
+            boolean dayStart = time.getHour() == 0 && time.getMinute() == 0;
+            gc.fillText((dayStart ? DAY_FORMAT : TIME_FORMAT).format(time), x, TOP + plotHeight + 6);
+        }
+    }
+    
+    private void drawCrosshair(GraphicsContext gc, int from, int to, double[] range, double plotWidth, double plotHeight) {
+        if (Double.isNaN(crosshairX) || crosshairX < LEFT || crosshairX > LEFT + plotWidth || from >= to) {
+            return;
+        }
+        
+        // Nearest point to the pointer
+        double time = pixelToTime(crosshairX);
+        int index = Math.max(from, Math.min(indexAfter(time), to - 1));
+        if (index > from && time - timestamps[index - 1] < timestamps[index] - time) {
+            index--;
+        }
+        double x = timeToPixel(timestamps[index]);
+        double y = valueToPixel(values[index], range);
+        if (x < LEFT || x > LEFT + plotWidth) {
+            return;
+        }
+        
+        gc.setStroke(CROSSHAIR_COLOR);
+        gc.setLineWidth(1);
+        gc.strokeLine(Math.round(x) + 0.5, TOP, Math.round(x) + 0.5, TOP + plotHeight);
+        gc.setFill(SERIES_COLOR);
+        gc.fillOval(x - 4, y - 4, 8, 8);
+        
+        String text = CROSSHAIR_FORMAT.format(Instant.ofEpochMilli(timestamps[index]).atZone(TimeUtil.VIETNAM_ZONE))
+            + "   " + VALUE_FORMAT.format(values[index]);
+        boolean leftSide = x > LEFT + plotWidth / 2;
+        gc.setFont(TICK_FONT);
+        gc.setTextBaseline(VPos.TOP);
+        gc.setTextAlign(leftSide ? TextAlignment.RIGHT : TextAlignment.LEFT);
+        gc.setFill(LABEL_COLOR);
+        gc.fillText(text, leftSide ? x - 8 : x + 8, TOP + 6);
+    }
+    
+    /**
+     * Visible value range rounded out to tick steps: {min, max, step}; bars always include zero
+     */
+    private double[] valueRange(int from, int to) {
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (int i = from; i < to; i++) {
+            min = Math.min(min, values[i]);
+            max = Math.max(max, values[i]);
+        }
+        if (chartType == ChartType.BAR) {
+            min = Math.min(min, 0);
+            max = Math.max(max, 0);
+        }
+        if (max - min < 1e-6) {
+            min -= 1;
+            max += 1;
+        }
+        
+        double step = niceStep((max - min) / Math.max(2, plotHeight() / 50));
+        return new double[] {Math.floor(min / step) * step, Math.ceil(max / step) * step, step};
+    }
+    
+    /**
+     * 1, 2 or 5 times a power of ten, at least the given step
+     */
+    private static double niceStep(double raw) {
+        double magnitude = Math.pow(10, Math.floor(Math.log10(raw)));
+        double fraction = raw / magnitude;
+        double nice = fraction <= 1 ? 1 : fraction <= 2 ? 2 : fraction <= 5 ? 5 : 10;
+        return nice * magnitude;
+    }
+    
+    /**
+     * Index of the first point after the given time (size when there is none)
+     */
+    private int indexAfter(double time) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] <= time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    private double plotWidth() {
+        return canvas.getWidth() - LEFT - RIGHT;
+    }
+    
+    private double plotHeight() {
+        return canvas.getHeight() - TOP - BOTTOM;
+    }
+    
+    private double timeToPixel(double time) {
+        return LEFT + (time - viewStart) / (viewEnd - viewStart) * plotWidth();
+    }
+    
+    private double pixelToTime(double x) {
+        return viewStart + (x - LEFT) / plotWidth() * (viewEnd - viewStart);
+    }
+    
+    private double valueToPixel(double value, double[] range) {
+        return TOP + (range[1] - value) / (range[1] - range[0]) * plotHeight();
+    }
+    
+    private static DecimalFormat decimalFormat(String pattern) {
+        DecimalFormat format = new DecimalFormat(pattern);
+        format.setRoundingMode(RoundingMode.HALF_UP);
+        return format;
+    }
+}
@@ -1,7 +1,9 @@
 package com.nhom.weatherdesktop.controller;
 
+import com.nhom.weatherdesktop.repository.StationRepository;
 import com.nhom.weatherdesktop.service.AuthService;
 import com.nhom.weatherdesktop.service.interfaces.IAuthService;
+import com.nhom.weatherdesktop.util.TaskExecutor;
 import com.nhom.weatherdesktop.util.UserSession;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
@@ -55,6 +57,10 @@ public class AccountController {
         try {
             // Clear session
             authService.logout();
+            StationRepository.getInstance().invalidate();
+            
+            // Stop all background tasks of the signed-out user
+            TaskExecutor.getInstance().shutdown();
             
             // Navigate to login screen
             navigateToLogin();
@@ -2,8 +2,9 @@ package com.nhom.weatherdesktop.controller;
 
 import com.nhom.weatherdesktop.dto.request.AddStationRequest;
 import com.nhom.weatherdesktop.dto.response.StationResponse;
+import com.nhom.weatherdesktop.repository.StationRepository;
 import com.nhom.weatherdesktop.service.LocationService;
-import com.nhom.weatherdesktop.service.StationService;
+import com.nhom.weatherdesktop.util.TaskExecutor;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Alert;
@@ -28,14 +29,14 @@ public class AddStationDialogController {
     private TextField locationField;
     
     private Stage stage;
-    private StationService stationService;
+    private StationRepository stationRepository;
     private LocationService locationService;
     private Double selectedLatitude;
     private Double selectedLongitude;
     private boolean success = false;
     
     public AddStationDialogController() {
-        this.stationService = new StationService();
+        this.stationRepository = StationRepository.getInstance();
         this.locationService = new LocationService();
     }
     
@@ -122,7 +123,7 @@ public class AddStationDialogController {
         }
         
         // Call API in background
-        new Thread(() -> {
+        TaskExecutor.getInstance().submit("add-station", () -> {
             try {
                 logger.info("Adding station: name={}, location=({}, {})", 
                     name, selectedLatitude, selectedLongitude);
@@ -134,7 +135,7 @@ public class AddStationDialogController {
                     BigDecimal.valueOf(selectedLongitude)
                 );
                 
-                StationResponse response = stationService.addStationToUser(request);
+                StationResponse response = stationRepository.addStation(request);
                 
                 Platform.runLater(() -> {
                     logger.info("Station added successfully! Station: {}, Location: {}, Coordinates: ({}, {})", 
@@ -150,7 +151,7 @@ public class AddStationDialogController {
                     showError("Error", "Failed to add station: " + e.getMessage());
                 });
             }
-        }).start();
+        });
     }
     
     @FXML
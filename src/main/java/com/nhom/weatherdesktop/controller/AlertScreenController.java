@@ -1,11 +1,11 @@
 package com.nhom.weatherdesktop.controller;
 
 import com.nhom.weatherdesktop.dto.response.AlertResponse;
-import com.nhom.weatherdesktop.dto.response.PageResponse;
 import com.nhom.weatherdesktop.dto.response.StationResponse;
 import com.nhom.weatherdesktop.service.AlertService;
 import com.nhom.weatherdesktop.service.StationService;
 import com.nhom.weatherdesktop.util.AppConfig;
+import com.nhom.weatherdesktop.util.TaskExecutor;
 import com.nhom.weatherdesktop.websocket.StompClient;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
@@ -31,6 +31,11 @@ public class AlertScreenController {
     private AlertService alertService;
     private SidebarController sidebarController;
     
+    // Loads may overlap (refresh, dialog closed, delete all); only the latest one touches the list.
+    // Both are only used on the JavaFX thread
+    private int loadGeneration;
+    private int shownGeneration;
+    
     // WebSocket
     private static StompClient stompClient;
     private StationService stationService;
@@ -47,48 +52,29 @@ public class AlertScreenController {
     }
     
     private void loadAlerts() {
-        new Thread(() -> {
+        int generation = ++loadGeneration;
+        
+        TaskExecutor.getInstance().submitForScreen("Alerts", "load-alerts", () -> {
             try {
                 logger.debug("Loading alerts...");
-                PageResponse<AlertResponse> response = alertService.getMyAlerts(0, 100);
+                
+                // Each alert is rendered as soon as it is parsed, so the first rows show up
+                // before the rest of the response has arrived
+                int count = alertService.streamMyAlerts(0, 100, alert -> Platform.runLater(() -> {
+                    if (takeOver(generation)) {
+                        addAlertItem(alert);
+                    }
+                }));
                 
                 Platform.runLater(() -> {
-                    alertListContainer.getChildren().clear();
-                    
-                    if (response.content().isEmpty()) {
-                        // Show empty state
-                        emptyState.setVisible(true);
-                        emptyState.setManaged(true);
-                        alertListContainer.setVisible(false);
-                        alertListContainer.setManaged(false);
+                    if (!takeOver(generation)) {
+                        return; // a newer load has started
+                    }
+                    if (count == 0) {
+                        showEmptyState();
                         logger.info("No alerts to display");
                     } else {
-                        // Hide empty state and show alerts
-                        emptyState.setVisible(false);
-                        emptyState.setManaged(false);
-                        alertListContainer.setVisible(true);
-                        alertListContainer.setManaged(true);
-                        
-                        // Load alert items
-                        for (AlertResponse alert : response.content()) {
-                            try {
-                                FXMLLoader loader = new FXMLLoader(
-                                    getClass().getResource("/fxml/components/alert_item.fxml")
-                                );
-                                HBox alertItem = loader.load();
-                                AlertItemController controller = loader.getController();
-                                controller.setAlert(alert);
-                                
-                                // Set callback to refresh alerts when dialog closes
-                                controller.setOnDialogClosed(this::loadAlerts);
-                                
-                                alertListContainer.getChildren().add(alertItem);
-                            } catch (IOException e) {
-                                logger.error("Failed to load alert item: {}", e.getMessage(), e);
-                            }
-                        }
-                        
-                        logger.info("Loaded {} alerts successfully", response.content().size());
+                        logger.info("Loaded {} alerts successfully", count);
                         
                         // Update sidebar icon after loading alerts
                         updateSidebarIcon();
@@ -97,15 +83,60 @@ public class AlertScreenController {
                 
             } catch (Exception e) {
                 logger.error("Failed to load alerts: {}", e.getMessage(), e);
+                // Show error state
                 Platform.runLater(() -> {
-                    // Show error state
-                    emptyState.setVisible(true);
-                    emptyState.setManaged(true);
-                    alertListContainer.setVisible(false);
-                    alertListContainer.setManaged(false);
+                    if (takeOver(generation)) {
+                        showEmptyState();
+                    }
                 });
             }
-        }).start();
+        });
+    }
+    
+    /**
+     * Whether the given load is still the latest one; the first time it is, the rows of the
+     * previous load are cleared, in the same runnable that shows the new ones
+     */
+    private boolean takeOver(int generation) {
+        if (generation != loadGeneration) {
+            return false;
+        }
+        if (shownGeneration != generation) {
+            alertListContainer.getChildren().clear();
+            shownGeneration = generation;
+        }
+        return true;
+    }
+    
+    private void addAlertItem(AlertResponse alert) {
+        // Hide empty state and show alerts
+        emptyState.setVisible(false);
+        emptyState.setManaged(false);
+        alertListContainer.setVisible(true);
+        alertListContainer.setManaged(true);
+        
+        try {
+            FXMLLoader loader = new FXMLLoader(
+                getClass().getResource("/fxml/components/alert_item.fxml")
+            );
+            HBox alertItem = loader.load();
+            AlertItemController controller = loader.getController();
+            controller.setAlert(alert);
+            
+            // Set callback to refresh alerts when dialog closes
+            controller.setOnDialogClosed(this::loadAlerts);
+            
+            alertListContainer.getChildren().add(alertItem);
+        } catch (IOException e) {
+            logger.error("Failed to load alert item: {}", e.getMessage(), e);
+        }
+    }
+    
+    private void showEmptyState() {
+        emptyState.setVisible(true);
+        emptyState.setManaged(true);
+        alertListContainer.setVisible(false);
+        alertListContainer.setManaged(false);
     }
     
     public void setSidebarController(SidebarController sidebarController) {
@@ -138,7 +169,7 @@ public class AlertScreenController {
         confirmAlert.showAndWait().ifPresent(response -> {
             if (response == javafx.scene.control.ButtonType.OK) {
                 // User confirmed, delete all alerts
-                new Thread(() -> {
+                TaskExecutor.getInstance().submit("delete-all-alerts", () -> {
                     try {
                         logger.debug("Deleting all alerts...");
                         alertService.deleteAllMyAlerts();
@@ -174,7 +205,7 @@ public class AlertScreenController {
                             errorAlert.showAndWait();
                         });
                     }
-                }).start();
+                });
             } else {
                 logger.debug("Delete all alerts cancelled by user");
             }
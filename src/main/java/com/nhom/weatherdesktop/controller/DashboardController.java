@@ -0,0 +1,275 @@
+package com.nhom.weatherdesktop.controller;
+
+import com.nhom.weatherdesktop.dto.response.StationResponse;
+import com.nhom.weatherdesktop.dto.response.WeatherDataResponse;
+import com.nhom.weatherdesktop.repository.StationRepository;
+import com.nhom.weatherdesktop.util.TaskExecutor;
+import com.nhom.weatherdesktop.websocket.StompClient;
+import eu.hansolo.tilesfx.Tile;
+import eu.hansolo.tilesfx.TileBuilder;
+import javafx.application.Platform;
+import javafx.fxml.FXML;
+import javafx.geometry.Insets;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.HBox;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Live grid of every station of the user, fed by the shared STOMP connection
+ * The grid is a virtualized list of tile rows: only the rows on screen own tiles, and tiles
+ * are reused while scrolling, so hundreds of stations cost no more to render than a screenful.
+ * Readings are kept per station and pushed into a tile only while it is visible
+ */
+public class DashboardController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DashboardController.class);
+    private static final String SCREEN = "Dashboard";
+    private static final double TILE_WIDTH = 180;
+    private static final double TILE_HEIGHT = 140;
+    private static final double TILE_GAP = 12;
+    // FX thread only
+    private static final DecimalFormat ONE_DECIMAL = decimalFormat("0.0");
+    private static final DecimalFormat NO_DECIMALS = decimalFormat("0");
+    
+    @FXML
+    private ListView<List<StationResponse>> tileRows;
+    
+    @FXML
+    private Label summaryLabel;
+    
+    private final StationRepository stationRepository;
+    private final StompClient stompClient;
+    private final Consumer<List<StationResponse>> stationListener = stations -> Platform.runLater(() -> showStations(stations));
+    
+    // All below is touched on the JavaFX thread only
+    private List<StationResponse> stations = List.of();
+    private final Map<Long, String> subscriptionIds = new HashMap<>(); // stationId -> subscriptionId
+    private final Map<Long, WeatherDataResponse> latestReadings = new HashMap<>();
+    private final Map<Long, Tile> visibleTiles = new HashMap<>();
+    private int columns;
+    private boolean disposed;
+    
+    public DashboardController() {
+        this.stationRepository = StationRepository.getInstance();
+        this.stompClient = StompClient.getInstance();
+    }
+    
+    @FXML
+    public void initialize() {
+        tileRows.setCellFactory(list -> new TileRowCell());
+        tileRows.setFixedCellSize(TILE_HEIGHT + TILE_GAP);
+        tileRows.setFocusTraversable(false);
+        tileRows.widthProperty().addListener((obs, oldWidth, width) -> layoutRows());
+        
+        // The screen is replaced (navigation) by detaching it from the scene
+        tileRows.sceneProperty().addListener((obs, oldScene, scene) -> {
+            if (scene == null) {
+                dispose();
+            }
+        });
+        
+        stationRepository.addListener(stationListener);
+        loadStations();
+    }
+    
+    private void loadStations() {
+        summaryLabel.setText("Loading stations...");
+        
+        TaskExecutor.getInstance().submitForScreen(SCREEN, "load-dashboard-stations", () -> {
+            try {
+                List<StationResponse> loaded = stationRepository.getStations();
+                Platform.runLater(() -> showStations(loaded));
+            } catch (Exception e) {
+                logger.error("Failed to load dashboard stations: {}", e.getMessage(), e);
+                Platform.runLater(() -> summaryLabel.setText("Failed to load stations"));
+            }
+        });
+    }
+    
+    /**
+     * Show the given stations and keep exactly one weather subscription per station
+     */
+    private void showStations(List<StationResponse> stationList) {
+        if (disposed) {
+            return; // a late load after navigating away
+        }
+        stations = List.copyOf(stationList);
+        
+        Map<Long, StationResponse> byId = new HashMap<>();
+        for (StationResponse station : stations) {
+            byId.put(station.id(), station);
+        }
+        
+        // Drop stations that are gone
+        subscriptionIds.entrySet().removeIf(entry -> {
+            if (byId.containsKey(entry.getKey())) {
+                return false;
+            }
+            stompClient.unsubscribe(entry.getValue());
+            latestReadings.remove(entry.getKey());
+            return true;
+        });
+        
+        // Subscribe to new ones; only the newest reading per frame reaches the handler
+        for (StationResponse station : stations) {
+            Long stationId = station.id();
+            subscriptionIds.computeIfAbsent(stationId, id -> stompClient.subscribeLatest(
+                "/topic/stations/" + id + "/weather", WeatherDataResponse.class, data -> handleReading(id, data)));
+        }
+        
+        logger.info("Dashboard watching {} stations", stations.size());
+        columns = 0; // force re-chunking
+        layoutRows();
+        updateSummary();
+    }
+    
+    private void handleReading(Long stationId, WeatherDataResponse data) {
+        boolean first = latestReadings.put(stationId, data) == null;
+        
+        Tile tile = visibleTiles.get(stationId);
+        if (tile != null) {
+            showReading(tile, data);
+        }
+        if (first) {
+            updateSummary();
+        }
+    }
+    
+    /**
+     * Split the stations into rows as wide as the list allows; only redone when the column count changes
+     */
+    private void layoutRows() {
+        double width = tileRows.getWidth();
+        if (width <= 0) {
+            return;
+        }
+        
+        // Leave room for the vertical scroll bar
+        int fit = Math.max(1, (int) ((width - 24 + TILE_GAP) / (TILE_WIDTH + TILE_GAP)));
+        if (fit == columns) {
+            return;
+        }
+        columns = fit;
+        
+        List<List<StationResponse>> rows = new ArrayList<>((stations.size() + columns - 1) / columns);
+        for (int start = 0; start < stations.size(); start += columns) {
+            rows.add(stations.subList(start, Math.min(start + columns, stations.size())));
+        }
+        tileRows.getItems().setAll(rows);
+    }
+    
+    private void updateSummary() {
+        summaryLabel.setText(stations.size() + " stations · " + latestReadings.size() + " reporting");
+    }
+    
+    private void dispose() {
+        disposed = true;
+        stationRepository.removeListener(stationListener);
+        subscriptionIds.values().forEach(stompClient::unsubscribe);
+        subscriptionIds.clear();
+        visibleTiles.clear();
+        logger.debug("Dashboard closed, subscriptions released");
+    }
+    
+    // ========== Tiles ==========
+    
+    private static Tile createTile() {
+        return TileBuilder.create()
+            .skinType(Tile.SkinType.NUMBER)
+            .prefSize(TILE_WIDTH, TILE_HEIGHT)
+            .unit("°C")
+            .decimals(1)
+            .animated(false)
+            .build();
+    }
+    
+    private void showStation(Tile tile, StationResponse station) {
+        tile.setUserData(station.id());
+        tile.setTitle(station.name());
+        
+        WeatherDataResponse reading = latestReadings.get(station.id());
+        if (reading != null) {
+            showReading(tile, reading);
+        } else {
+            tile.setValueVisible(false);
+            tile.setText("Waiting for data");
+        }
+    }
+    
+    private static void showReading(Tile tile, WeatherDataResponse data) {
+        tile.setValueVisible(data.temperature() != null);
+        if (data.temperature() != null) {
+            tile.setValue(data.temperature());
+        }
+        tile.setText("Humidity " + format(NO_DECIMALS, data.humidity()) + "%  Wind " + format(ONE_DECIMAL, data.windSpeed()) + " m/s");
+    }
+    
+    private static String format(DecimalFormat format, Float value) {
+        return value != null ? format.format(value) : "--";
+    }
+    
+    private static DecimalFormat decimalFormat(String pattern) {
+        DecimalFormat format = new DecimalFormat(pattern);
+        format.setRoundingMode(RoundingMode.HALF_UP);
+        return format;
+    }
+    
+    /**
+     * One row of the grid; its tiles are kept and rebound as the cell is reused for other rows
+     */
+    private class TileRowCell extends ListCell<List<StationResponse>> {
+        
+        private final HBox row = new HBox(TILE_GAP);
+        private final List<Tile> tiles = new ArrayList<>();
+        
+        TileRowCell() {
+            row.setPadding(new Insets(0, 0, TILE_GAP, 0));
+            getStyleClass().add("dashboard-row");
+        }
+        
+        @Override
+        protected void updateItem(List<StationResponse> item, boolean empty) {
+            super.updateItem(item, empty);
+            
+            // Tiles of this cell no longer show their previous stations
+            for (Tile tile : tiles) {
+                Object stationId = tile.getUserData();
+                if (stationId != null && visibleTiles.get(stationId) == tile) {
+                    visibleTiles.remove(stationId);
+                }
+                tile.setUserData(null);
+            }
+            
+            if (empty || item == null) {
+                setGraphic(null);
+                setText(null);
+                return;
+            }
+            
+            while (tiles.size() < item.size()) {
+                tiles.add(createTile());
+            }
+            for (int i = 0; i < item.size(); i++) {
+                StationResponse station = item.get(i);
+                Tile tile = tiles.get(i);
+                showStation(tile, station);
+                visibleTiles.put(station.id(), tile);
+            }
+            
+            row.getChildren().setAll(tiles.subList(0, item.size()));
+            setText(null);
+            setGraphic(row);
+        }
+    }
+}
@@ -3,9 +3,10 @@ package com.nhom.weatherdesktop.controller;
 import com.nhom.weatherdesktop.dto.request.UpdateStationRequest;
 import com.nhom.weatherdesktop.dto.response.StationResponse;
 import com.nhom.weatherdesktop.dto.response.ThresholdResponse;
+import com.nhom.weatherdesktop.repository.StationRepository;
 import com.nhom.weatherdesktop.service.LocationService;
-import com.nhom.weatherdesktop.service.StationService;
 import com.nhom.weatherdesktop.service.ThresholdService;
+import com.nhom.weatherdesktop.util.TaskExecutor;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Alert;
@@ -69,7 +70,7 @@ public class EditStationDialogController {
     private TextField dustMaxField;
     
     private Stage stage;
-    private StationService stationService;
+    private StationRepository stationRepository;
     private ThresholdService thresholdService;
     private LocationService locationService;
     private StationResponse station;
@@ -80,7 +81,7 @@ public class EditStationDialogController {
     private boolean isLoadingData = false;
     
     public EditStationDialogController() {
-        this.stationService = new StationService();
+        this.stationRepository = StationRepository.getInstance();
         this.thresholdService = new ThresholdService();
         this.locationService = new LocationService();
     }
@@ -119,7 +120,7 @@ public class EditStationDialogController {
         selectedLongitude = station.longitude();
         
         // Load threshold data
-        new Thread(() -> {
+        TaskExecutor.getInstance().submit("load-threshold", () -> {
             try {
                 threshold = thresholdService.getThresholdByStationId(station.id());
                 if (threshold != null) {
@@ -151,11 +152,11 @@ public class EditStationDialogController {
             } catch (Exception e) {
                 logger.error("Failed to load threshold data: {}", e.getMessage());
             }
-        }).start();
+        });
         
         // Reverse geocode to get address from coordinates
         if (selectedLatitude != null && selectedLongitude != null) {
-            new Thread(() -> {
+            TaskExecutor.getInstance().submit("reverse-geocode", () -> {
                 try {
                     logger.debug("Reverse geocoding address for station: lat={}, lng={}", 
                         selectedLatitude, selectedLongitude);
@@ -170,7 +171,7 @@ public class EditStationDialogController {
                         addressField.setText(station.location()); // Fallback to location text
                     });
                 }
-            }).start();
+            });
         } else {
             addressField.setText(station.location()); // Fallback if no coordinates
         }
@@ -240,9 +241,9 @@ public class EditStationDialogController {
         logger.debug("Public toggle changed for station {}: {}", station.id(), newPublicStatus);
         
         // Call API in background thread
-        new Thread(() -> {
+        TaskExecutor.getInstance().submit("update-station-sharing", () -> {
             try {
-                StationResponse response = stationService.updateStationSharing(station.id());
+                StationResponse response = stationRepository.updateStationSharing(station.id());
                 Platform.runLater(() -> {
                     logger.info("Station sharing updated successfully: id={}, isPublic={}", 
                         response.id(), response.isPublic());
@@ -257,7 +258,7 @@ public class EditStationDialogController {
                     showError("Error", "Failed to update sharing status: " + e.getMessage());
                 });
             }
-        }).start();
+        });
     }
 
     @FXML
@@ -294,7 +295,7 @@ public class EditStationDialogController {
         final Float dustMax = parseTextField(dustMaxField);
         
         // Call API in background
-        new Thread(() -> {
+        TaskExecutor.getInstance().submit("update-station", () -> {
             try {
                 logger.info("Updating station: id={}, name={}, location={}, coords=({}, {}), public={}", 
                     station.id(), name, location, selectedLatitude, selectedLongitude, isPublic);
@@ -308,7 +309,7 @@ public class EditStationDialogController {
                     isPublic
                 );
                 
-                StationResponse stationResponse = stationService.updateStation(station.id(), stationRequest);
+                StationResponse stationResponse = stationRepository.updateStation(station.id(), stationRequest);
                 
                 // 2. Update Thresholds (if we have a threshold ID)
                 if (threshold != null) {
@@ -340,7 +341,7 @@ public class EditStationDialogController {
                     showError("Error", "Failed to update station: " + e.getMessage());
                 });
             }
-        }).start();
+        });
     }
     
     private Float parseTextField(TextField field) {
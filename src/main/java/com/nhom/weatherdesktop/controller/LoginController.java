@@ -6,6 +6,7 @@ import com.nhom.weatherdesktop.enums.AccessChannel;
 import com.nhom.weatherdesktop.service.AuthService;
 import com.nhom.weatherdesktop.session.SessionContext;
 import com.nhom.weatherdesktop.util.AppConfig;
+import com.nhom.weatherdesktop.util.TaskExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import javafx.application.Platform;
@@ -104,9 +105,7 @@ public class LoginController {
             passwordField.clear();
         });
         
-        Thread thread = new Thread(loginTask);
-        thread.setDaemon(true);
-        thread.start();
+        TaskExecutor.getInstance().submit("login", loginTask);
     }
     
     @FXML
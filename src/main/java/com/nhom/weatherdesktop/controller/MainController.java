@@ -1,5 +1,6 @@
 package com.nhom.weatherdesktop.controller;
 
+import com.nhom.weatherdesktop.util.TaskExecutor;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.control.ScrollPane;
@@ -21,6 +22,8 @@ public class MainController {
     @FXML
     private ScrollPane contentScrollPane;
     
+    private String currentPage;
+    
     @FXML
     public void initialize() {
         // Connect sidebar navigation to top bar title updates
@@ -37,7 +40,8 @@ public class MainController {
         final double SCROLL_MULTIPLIER = 3.0;
         
         contentScrollPane.addEventFilter(javafx.scene.input.ScrollEvent.SCROLL, event -> {
-            if (event.getDeltaY() != 0) {
+            // Screens that fit the viewport scroll on their own (e.g. the dashboard grid)
+            if (event.getDeltaY() != 0 && !contentScrollPane.isFitToHeight()) {
                 double vValue = contentScrollPane.getVvalue();
                 double contentHeight = contentScrollPane.getContent().getBoundsInLocal().getHeight();
                 double viewportHeight = contentScrollPane.getViewportBounds().getHeight();
@@ -59,6 +63,15 @@ public class MainController {
         // Update current screen in AlertNotificationManager
         com.nhom.weatherdesktop.util.AlertNotificationManager.getInstance().setCurrentScreen(page);
         
+        // Cancel background work of the screen being replaced
+        if (currentPage != null) {
+            TaskExecutor.getInstance().cancelScreen(currentPage);
+        }
+        currentPage = page;
+        
+        // The dashboard virtualizes its own scrolling, so it is sized to the viewport
+        contentScrollPane.setFitToHeight("Dashboard".equals(page));
+        
         // Load different content based on selected page
         try {
             if ("Alerts".equals(page)) {
@@ -84,6 +97,14 @@ public class MainController {
                 Parent myStationScreen = loader.load();
                 contentScrollPane.setContent(myStationScreen);
                 logger.debug("My Station screen loaded successfully");
+            } else if ("Dashboard".equals(page)) {
+                logger.info("Navigating to Dashboard screen");
+                FXMLLoader loader = new FXMLLoader(
+                    getClass().getResource("/fxml/screens/dashboard_screen.fxml")
+                );
+                Parent dashboardScreen = loader.load();
+                contentScrollPane.setContent(dashboardScreen);
+                logger.debug("Dashboard screen loaded successfully");
             } else if ("Settings".equals(page)) {
                 logger.info("Navigating to Settings screen");
                 FXMLLoader loader = new FXMLLoader(
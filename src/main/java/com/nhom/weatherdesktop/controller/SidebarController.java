@@ -1,6 +1,7 @@
 package com.nhom.weatherdesktop.controller;
 
 import com.nhom.weatherdesktop.service.AlertService;
+import com.nhom.weatherdesktop.util.TaskExecutor;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
@@ -18,6 +19,9 @@ public class SidebarController {
     @FXML
     private Button myStationBtn;
     
+    @FXML
+    private Button dashboardBtn;
+    
     @FXML
     private Button alertsBtn;
     
@@ -54,6 +58,14 @@ public class SidebarController {
         }
     }
     
+    @FXML
+    private void handleDashboard() {
+        setActiveButton(dashboardBtn);
+        if (onNavigate != null) {
+            onNavigate.accept("Dashboard");
+        }
+    }
+    
     @FXML
     private void handleAlerts() {
         setActiveButton(alertsBtn);
@@ -73,6 +85,7 @@ public class SidebarController {
     private void setActiveButton(Button activeBtn) {
         // Remove active class from all buttons
         myStationBtn.getStyleClass().remove("active");
+        dashboardBtn.getStyleClass().remove("active");
         alertsBtn.getStyleClass().remove("active");
         settingsBtn.getStyleClass().remove("active");
         
@@ -86,7 +99,7 @@ public class SidebarController {
      */
     public void updateAlertIcon() {
         // Run in background thread to avoid blocking UI
-        new Thread(() -> {
+        TaskExecutor.getInstance().submit("update-alert-icon", () -> {
             try {
                 boolean hasNew = alertService.hasNewAlerts();
                 
@@ -108,6 +121,6 @@ public class SidebarController {
             } catch (Exception e) {
                 logger.error("Failed to update alert icon: {}", e.getMessage(), e);
             }
-        }).start();
+        });
     }
 }
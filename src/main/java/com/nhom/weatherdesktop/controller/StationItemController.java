@@ -1,6 +1,8 @@
 package com.nhom.weatherdesktop.controller;
 
 import com.nhom.weatherdesktop.dto.response.StationResponse;
+import com.nhom.weatherdesktop.repository.StationRepository;
+import com.nhom.weatherdesktop.util.TaskExecutor;
 import javafx.fxml.FXML;
 import javafx.scene.layout.HBox;
 import javafx.scene.text.Text;
@@ -137,10 +139,10 @@ public class StationItemController {
         confirmAlert.showAndWait().ifPresent(response -> {
             if (response == javafx.scene.control.ButtonType.OK) {
                 // User confirmed, delete station
-                new Thread(() -> {
+                TaskExecutor.getInstance().submit("detach-station", () -> {
                     try {
                         logger.debug("Detaching station: id={}, name={}", station.id(), station.name());
-                        new com.nhom.weatherdesktop.service.StationService().detachStationFromUser(station.id());
+                        StationRepository.getInstance().detachStation(station.id());
                         
                         javafx.application.Platform.runLater(() -> {
                             logger.info("Station detached successfully! Station: {}, ID: {}", 
@@ -168,7 +170,7 @@ public class StationItemController {
                             errorAlert.showAndWait();
                         });
                     }
-                }).start();
+                });
             } else {
                 logger.debug("Station delete cancelled by user");
             }
@@ -1,8 +1,8 @@
 package com.nhom.weatherdesktop.controller;
 
-import com.nhom.weatherdesktop.dto.response.PageResponse;
 import com.nhom.weatherdesktop.dto.response.StationResponse;
-import com.nhom.weatherdesktop.service.StationService;
+import com.nhom.weatherdesktop.repository.StationRepository;
+import com.nhom.weatherdesktop.util.TaskExecutor;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -11,16 +11,18 @@ import javafx.scene.control.ListView;
 import javafx.scene.layout.HBox;
 import javafx.stage.Stage;
 
+import java.util.List;
+
 public class StationListPopupController {
 
     @FXML
     private ListView<HBox> stationListView;
 
-    private final StationService stationService;
+    private final StationRepository stationRepository;
     private Stage stage;
 
     public StationListPopupController() {
-        this.stationService = new StationService();
+        this.stationRepository = StationRepository.getInstance();
     }
 
     @FXML
@@ -34,15 +36,15 @@ public class StationListPopupController {
 
     private void loadStations() {
         // Load stations in background thread
-        new Thread(() -> {
+        TaskExecutor.getInstance().submit("load-station-list", () -> {
             try {
-                PageResponse<StationResponse> response = stationService.getMyStations(0, 10);
+                List<StationResponse> stations = stationRepository.getStations().stream().limit(10).toList();
                 
                 // Update UI on JavaFX thread
                 Platform.runLater(() -> {
                     stationListView.getItems().clear();
                     
-                    for (StationResponse station : response.content()) {
+                    for (StationResponse station : stations) {
                         try {
                             // Load station item FXML
                             FXMLLoader loader = new FXMLLoader(
@@ -62,7 +64,7 @@ public class StationListPopupController {
                         }
                     }
                     
-                    if (response.content().isEmpty()) {
+                    if (stations.isEmpty()) {
                         showInfo("No stations found", "You don't have any stations yet.");
                     }
                 });
@@ -72,7 +74,7 @@ public class StationListPopupController {
                     showError("Error", "Failed to load stations: " + e.getMessage());
                 });
             }
-        }).start();
+        });
     }
 
     @FXML
@@ -1,28 +1,49 @@
 package com.nhom.weatherdesktop.controller;
 
+import com.nhom.weatherdesktop.chart.TimeSeriesChart;
 import com.nhom.weatherdesktop.dto.response.DailyWeatherSummaryResponse;
 import com.nhom.weatherdesktop.service.WeatherDataService;
 import com.nhom.weatherdesktop.session.SessionContext;
+import com.nhom.weatherdesktop.timeseries.Downsampler;
+import com.nhom.weatherdesktop.timeseries.LocalDailySummary;
+import com.nhom.weatherdesktop.timeseries.Metric;
+import com.nhom.weatherdesktop.timeseries.MetricSeries;
+import com.nhom.weatherdesktop.timeseries.Reading;
+import com.nhom.weatherdesktop.timeseries.TimeSeriesStore;
+import com.nhom.weatherdesktop.util.FxUpdateCoalescer;
+import com.nhom.weatherdesktop.util.TaskExecutor;
+import com.nhom.weatherdesktop.util.TimeUtil;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
-import javafx.scene.chart.LineChart;
-import javafx.scene.chart.BarChart;
-import javafx.scene.chart.XYChart;
 import javafx.scene.control.Button;
 import javafx.scene.layout.StackPane;
 import javafx.scene.text.Text;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 public class TemperatureChartController {
     
     private static final Logger logger = LoggerFactory.getLogger(TemperatureChartController.class);
+    private static final int DAYS = 7;
+    private static final List<Metric> LINE_METRICS = List.of(Metric.TEMPERATURE, Metric.HUMIDITY, Metric.WIND_SPEED, Metric.DUST);
+    // Stored readings are charted as one unbroken run up to now; a longer gap ends the run
+    private static final Duration MAX_READING_GAP = Duration.ofMinutes(30);
+    // Width the stored readings are reduced for when the charts are not laid out yet
+    private static final int DEFAULT_CHART_PIXELS = 1600;
     
     @FXML
     private Text chartTitle;
@@ -31,19 +52,19 @@ public class TemperatureChartController {
     private StackPane chartsStack;
     
     @FXML
-    private LineChart<String, Number> temperatureChart;
+    private TimeSeriesChart temperatureChart;
     
     @FXML
-    private LineChart<String, Number> humidityChart;
+    private TimeSeriesChart humidityChart;
     
     @FXML
-    private LineChart<String, Number> windSpeedChart;
+    private TimeSeriesChart windSpeedChart;
     
     @FXML
-    private LineChart<String, Number> dustChart;
+    private TimeSeriesChart dustChart;
     
     @FXML
-    private BarChart<String, Number> rainfallChart;
+    private TimeSeriesChart rainfallChart;
     
     @FXML
     private Button backButton;
@@ -61,11 +82,26 @@ public class TemperatureChartController {
     };
     
     private final WeatherDataService weatherDataService;
+    private final TimeSeriesStore timeSeriesStore;
     private List<DailyWeatherSummaryResponse> weatherData;
+    // What weatherData is merged from: the backend's days, and the days computed here by date
+    private List<DailyWeatherSummaryResponse> remoteSummaries = List.of();
+    private final Map<String, LocalDailySummary> localSummaries = new TreeMap<>();
+    // Locally stored readings since historyStart; line charts show them after the daily averages of the days before
+    private final Map<Metric, MetricSeries> history = new EnumMap<>(Metric.class);
+    private long historyStart;
     private Long lastLoadedStationId = null; // Track last loaded station
     
+    // Today's summary is recomputed locally on every reading; charts redraw at most once per frame
+    private final FxUpdateCoalescer<Long, Runnable> liveSummaries = new FxUpdateCoalescer<>(Runnable::run);
+    private final BiConsumer<Long, LocalDailySummary> summaryListener =
+        (stationId, summary) -> liveSummaries.submit(stationId, () -> applyLiveSummary(stationId, summary));
+    private final BiConsumer<Long, Reading> readingListener =
+        (stationId, reading) -> Platform.runLater(() -> applyLiveReading(stationId, reading));
+    
     public TemperatureChartController() {
         this.weatherDataService = WeatherDataService.getInstance();
+        this.timeSeriesStore = TimeSeriesStore.getInstance();
     }
     
     @FXML
@@ -78,6 +114,16 @@ public class TemperatureChartController {
         
         // Start watching for station changes
         startStationChangeListener();
+        
+        // Keep the current day live from the WebSocket stream, until the screen is left
+        timeSeriesStore.addDailySummaryListener(summaryListener);
+        timeSeriesStore.addReadingListener(readingListener);
+        chartTitle.sceneProperty().addListener((obs, oldScene, scene) -> {
+            if (scene == null) {
+                timeSeriesStore.removeDailySummaryListener(summaryListener);
+                timeSeriesStore.removeReadingListener(readingListener);
+            }
+        });
     }
     
     /**
@@ -117,14 +163,8 @@ public class TemperatureChartController {
         } else {
             // Station not yet selected, retry after delay
             logger.info("Station not yet selected, will retry in 500ms");
-            new Thread(() -> {
-                try {
-                    Thread.sleep(500);
-                    Platform.runLater(this::loadWeatherData);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-            }).start();
+            TaskExecutor.getInstance().scheduleForScreen("My Station", "retry-chart-load", Duration.ofMillis(500),
+                () -> Platform.runLater(this::loadWeatherData));
         }
     }
     
@@ -149,29 +189,141 @@ public class TemperatureChartController {
         
         // Update last loaded station ID
         lastLoadedStationId = stationId;
+        int pixels = chartsStack.getWidth() > 0 ? (int) Math.ceil(chartsStack.getWidth()) : DEFAULT_CHART_PIXELS;
         
         // Fetch data in background thread to avoid blocking UI
-        new Thread(() -> {
+        TaskExecutor.getInstance().submitForScreen("My Station", "load-chart-data", () -> {
             try {
                 logger.info("Fetching weather data for station: {}", stationId);
-                List<DailyWeatherSummaryResponse> data = weatherDataService.getDailySummary(stationId, 7);
+                List<DailyWeatherSummaryResponse> remote = weatherDataService.getDailySummary(stationId, DAYS);
+                List<LocalDailySummary> local = timeSeriesStore.dailySummaries(stationId);
+                StoredHistory stored = loadHistory(stationId, pixels);
                 
                 // Update UI on JavaFX thread
                 Platform.runLater(() -> {
-                    this.weatherData = data;
+                    if (!stationId.equals(lastLoadedStationId)) {
+                        return; // the station changed while loading
+                    }
+                    remoteSummaries = remote;
+                    localSummaries.clear();
+                    local.forEach(day -> localSummaries.put(day.summary().date(), day));
+                    weatherData = mergeSummaries(remoteSummaries, localSummaries.values());
+                    history.clear();
+                    history.putAll(stored.series());
+                    historyStart = stored.start();
                     populateAllCharts();
-                    logger.info("Successfully loaded weather data for {} days", data.size());
+                    logger.info("Successfully loaded weather data for {} days", weatherData.size());
                 });
                 
             } catch (Exception e) {
                 logger.error("Failed to load weather data: {}", e.getMessage(), e);
                 Platform.runLater(() -> showErrorMessage("Failed to load weather data: " + e.getMessage()));
             }
-        }).start();
+        });
+    }
+    
+    /**
+     * Backend summaries merged with the days computed locally (the most recent ones)
+     * A local day replaces the backend's only when its readings cover the whole day; otherwise the
+     * app was not running all along, so the backend day is kept and only widened by the local
+     * extremes (averages and totals cannot be combined without the backend's counts)
+     */
+    private static List<DailyWeatherSummaryResponse> mergeSummaries(List<DailyWeatherSummaryResponse> remote,
+                                                                    Collection<LocalDailySummary> local) {
+        // ISO dates sort chronologically as strings
+        Map<String, DailyWeatherSummaryResponse> byDate = new TreeMap<>();
+        remote.forEach(day -> byDate.put(day.date(), day));
+        for (LocalDailySummary day : local) {
+            byDate.compute(day.summary().date(), (date, backend) ->
+                backend == null || day.wholeDay() ? day.summary() : withExtremes(backend, day.summary()));
+        }
+        
+        List<DailyWeatherSummaryResponse> merged = new ArrayList<>(byDate.values());
+        return merged.subList(Math.max(0, merged.size() - DAYS), merged.size());
+    }
+    
+    private static DailyWeatherSummaryResponse withExtremes(DailyWeatherSummaryResponse backend,
+                                                            DailyWeatherSummaryResponse local) {
+        return new DailyWeatherSummaryResponse(
+            backend.date(),
+            lower(backend.minTemperature(), local.minTemperature()),
+            higher(backend.maxTemperature(), local.maxTemperature()),
+            backend.avgTemperature(),
+            lower(backend.minHumidity(), local.minHumidity()),
+            higher(backend.maxHumidity(), local.maxHumidity()),
+            backend.avgHumidity(),
+            lower(backend.minWindSpeed(), local.minWindSpeed()),
+            higher(backend.maxWindSpeed(), local.maxWindSpeed()),
+            backend.avgWindSpeed(),
+            lower(backend.minDust(), local.minDust()),
+            higher(backend.maxDust(), local.maxDust()),
+            backend.avgDust(),
+            backend.totalRainfall()
+        );
+    }
+    
+    private static Float lower(Float a, Float b) {
+        return a == null ? b : b == null ? a : Float.valueOf(Math.min(a, b));
+    }
+    
+    private static Float higher(Float a, Float b) {
+        return a == null ? b : b == null ? a : Float.valueOf(Math.max(a, b));
+    }
+    
+    /**
+     * Readings of the line chart metrics stored on this client, from where they cover the time up
+     * to now without a long gap (at the earliest the start of the chart period). Stored readings
+     * that only cover a few minutes thus replace just those minutes, not the backend's days.
+     * Each series is reduced to the min/max per pixel of a chart the given width
+     */
+    private StoredHistory loadHistory(Long stationId, int pixels) {
+        Instant to = Instant.now();
+        Instant from = to.minus(Duration.ofDays(DAYS));
+        Map<Metric, MetricSeries> stored = new EnumMap<>(Metric.class);
+        Optional<Instant> start = timeSeriesStore.coveredSince(stationId, from, MAX_READING_GAP);
+        if (start.isEmpty()) {
+            return new StoredHistory(to.toEpochMilli(), stored);
+        }
+        
+        for (Metric metric : LINE_METRICS) {
+            MetricSeries series = timeSeriesStore.query(stationId, metric, start.get(), to, pixels, Downsampler.Mode.MIN_MAX);
+            if (!series.isEmpty()) {
+                stored.put(metric, series);
+            }
+        }
+        return new StoredHistory(start.get().toEpochMilli(), stored);
+    }
+    
+    private record StoredHistory(long start, Map<Metric, MetricSeries> series) {
+    }
+    
+    /**
+     * Append a newly stored reading to the line charts, after the daily averages and stored readings
+     */
+    private void applyLiveReading(Long stationId, Reading reading) {
+        if (!stationId.equals(lastLoadedStationId)) {
+            return;
+        }
+        for (Metric metric : LINE_METRICS) {
+            chartFor(metric).append(reading.recordAt(), metric.valueOf(reading));
+        }
+    }
+    
+    /**
+     * Merge a locally updated day summary in again and redraw the rainfall totals
+     * (the line charts follow the readings themselves)
+     */
+    private void applyLiveSummary(Long stationId, LocalDailySummary summary) {
+        if (!stationId.equals(lastLoadedStationId) || weatherData == null) {
+            return; // another station, or the initial load has not finished yet
+        }
+        localSummaries.put(summary.summary().date(), summary);
+        weatherData = mergeSummaries(remoteSummaries, localSummaries.values());
+        populateDaily(Metric.RAINFALL, DailyWeatherSummaryResponse::totalRainfall);
     }
     
     private void populateAllCharts() {
-        if (weatherData == null || weatherData.isEmpty()) {
+        if ((weatherData == null || weatherData.isEmpty()) && history.isEmpty()) {
             logger.warn("No weather data available");
             
             // Clear all charts to avoid showing old data from previous station
@@ -185,19 +337,63 @@ public class TemperatureChartController {
         // Restore proper chart title (in case it was showing error message)
         updateChartVisibility();
         
-        populateTemperatureData();
-        populateHumidityData();
-        populateWindSpeedData();
-        populateDustData();
-        populateRainfallData();
+        populateDailyCharts();
+    }
+    
+    /**
+     * Charts fed from the daily summaries: rainfall totals, and averages followed by the stored readings
+     */
+    private void populateDailyCharts() {
+        populateDaily(Metric.TEMPERATURE, DailyWeatherSummaryResponse::avgTemperature);
+        populateDaily(Metric.HUMIDITY, DailyWeatherSummaryResponse::avgHumidity);
+        populateDaily(Metric.WIND_SPEED, DailyWeatherSummaryResponse::avgWindSpeed);
+        populateDaily(Metric.DUST, DailyWeatherSummaryResponse::avgDust);
+        populateDaily(Metric.RAINFALL, DailyWeatherSummaryResponse::totalRainfall);
+    }
+    
+    /**
+     * One point per day, placed at local noon; on a line chart only for the days before the stored
+     * readings start, which follow
+     */
+    private void populateDaily(Metric metric, Function<DailyWeatherSummaryResponse, Float> value) {
+        List<DailyWeatherSummaryResponse> days = weatherData != null ? weatherData : List.of();
+        MetricSeries stored = history.getOrDefault(metric, MetricSeries.empty(metric));
+        long before = LINE_METRICS.contains(metric) ? historyStart : Long.MAX_VALUE;
+        long[] timestamps = new long[days.size() + stored.size()];
+        float[] values = new float[days.size() + stored.size()];
+        int size = 0;
+        for (DailyWeatherSummaryResponse day : days) {
+            Float dayValue = value.apply(day);
+            long noon = LocalDate.parse(day.date()).atTime(12, 0)
+                .atZone(TimeUtil.VIETNAM_ZONE).toInstant().toEpochMilli();
+            if (dayValue != null && noon < before) {
+                timestamps[size] = noon;
+                values[size] = dayValue;
+                size++;
+            }
+        }
+        System.arraycopy(stored.timestamps(), 0, timestamps, size, stored.size());
+        System.arraycopy(stored.values(), 0, values, size, stored.size());
+        size += stored.size();
+        chartFor(metric).setData(Arrays.copyOf(timestamps, size), Arrays.copyOf(values, size));
+    }
+    
+    private TimeSeriesChart chartFor(Metric metric) {
+        return switch (metric) {
+            case TEMPERATURE -> temperatureChart;
+            case HUMIDITY -> humidityChart;
+            case WIND_SPEED -> windSpeedChart;
+            case DUST -> dustChart;
+            case RAINFALL -> rainfallChart;
+        };
     }
     
     private void clearAllCharts() {
-        temperatureChart.getData().clear();
-        humidityChart.getData().clear();
-        windSpeedChart.getData().clear();
-        dustChart.getData().clear();
-        rainfallChart.getData().clear();
+        temperatureChart.clear();
+        humidityChart.clear();
+        windSpeedChart.clear();
+        dustChart.clear();
+        rainfallChart.clear();
     }
     
     private void showErrorMessage(String message) {
@@ -244,97 +440,4 @@ public class TemperatureChartController {
             case 4 -> rainfallChart.setVisible(true);
         }
     }
-    
-    private void populateTemperatureData() {
-        XYChart.Series<String, Number> series = new XYChart.Series<>();
-        series.setName("Temperature");
-        
-        for (DailyWeatherSummaryResponse day : weatherData) {
-            String dayLabel = formatDateToDay(day.date());
-            Float temp = day.avgTemperature();
-            if (temp != null) {
-                series.getData().add(new XYChart.Data<>(dayLabel, temp));
-            }
-        }
-        
-        temperatureChart.getData().clear();
-        temperatureChart.getData().add(series);
-    }
-    
-    private void populateHumidityData() {
-        XYChart.Series<String, Number> series = new XYChart.Series<>();
-        series.setName("Humidity");
-        
-        for (DailyWeatherSummaryResponse day : weatherData) {
-            String dayLabel = formatDateToDay(day.date());
-            Float humidity = day.avgHumidity();
-            if (humidity != null) {
-                series.getData().add(new XYChart.Data<>(dayLabel, humidity));
-            }
-        }
-        
-        humidityChart.getData().clear();
-        humidityChart.getData().add(series);
-    }
-    
-    private void populateWindSpeedData() {
-        XYChart.Series<String, Number> series = new XYChart.Series<>();
-        series.setName("Wind Speed");
-        
-        for (DailyWeatherSummaryResponse day : weatherData) {
-            String dayLabel = formatDateToDay(day.date());
-            Float windSpeed = day.avgWindSpeed();
-            if (windSpeed != null) {
-                series.getData().add(new XYChart.Data<>(dayLabel, windSpeed));
-            }
-        }
-        
-        windSpeedChart.getData().clear();
-        windSpeedChart.getData().add(series);
-    }
-    
-    private void populateDustData() {
-        XYChart.Series<String, Number> series = new XYChart.Series<>();
-        series.setName("Dust");
-        
-        for (DailyWeatherSummaryResponse day : weatherData) {
-            String dayLabel = formatDateToDay(day.date());
-            Float dust = day.avgDust();
-            if (dust != null) {
-                series.getData().add(new XYChart.Data<>(dayLabel, dust));
-            }
-        }
-        
-        dustChart.getData().clear();
-        dustChart.getData().add(series);
-    }
-    
-    private void populateRainfallData() {
-        XYChart.Series<String, Number> series = new XYChart.Series<>();
-        series.setName("Rainfall");
-        
-        for (DailyWeatherSummaryResponse day : weatherData) {
-            String dayLabel = formatDateToDay(day.date());
-            Float rainfall = day.totalRainfall();
-            if (rainfall != null) {
-                series.getData().add(new XYChart.Data<>(dayLabel, rainfall));
-            }
-        }
-        
-        rainfallChart.getData().clear();
-        rainfallChart.getData().add(series);
-    }
-    
-    /**
-     * Format date string (yyyy-MM-dd) to day of week (e.g., "Mon", "Tue")
-     */
-    private String formatDateToDay(String dateStr) {
-        try {
-            LocalDate date = LocalDate.parse(dateStr, DateTimeFormatter.ISO_LOCAL_DATE);
-            return date.getDayOfWeek().getDisplayName(TextStyle.SHORT, Locale.ENGLISH);
-        } catch (Exception e) {
-            logger.warn("Failed to parse date: {}", dateStr);
-            return dateStr;
-        }
-    }
 }
@@ -1,12 +1,15 @@
 package com.nhom.weatherdesktop.controller;
 
 import com.nhom.weatherdesktop.dto.response.AlertResponse;
-import com.nhom.weatherdesktop.dto.response.PageResponse;
 import com.nhom.weatherdesktop.dto.response.StationResponse;
 import com.nhom.weatherdesktop.dto.response.WeatherDataResponse;
-import com.nhom.weatherdesktop.service.StationService;
+import com.nhom.weatherdesktop.repository.StationRepository;
+import com.nhom.weatherdesktop.service.TokenRefreshService;
 import com.nhom.weatherdesktop.session.SessionContext;
+import com.nhom.weatherdesktop.timeseries.Reading;
+import com.nhom.weatherdesktop.timeseries.TimeSeriesStore;
 import com.nhom.weatherdesktop.util.AppConfig;
+import com.nhom.weatherdesktop.util.TaskExecutor;
 import com.nhom.weatherdesktop.websocket.StompClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,9 +25,18 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Text;
 
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 public class WeatherCardController {
     
     private static final Logger logger = LoggerFactory.getLogger(WeatherCardController.class);
+    // Same output as "%.1f" / "%.0f" without re-parsing a format string per update (FX thread only)
+    private static final DecimalFormat ONE_DECIMAL = decimalFormat("0.0");
+    private static final DecimalFormat NO_DECIMALS = decimalFormat("0");
     
     @FXML
     private Text temperatureValue;
@@ -48,16 +60,36 @@ public class WeatherCardController {
     private Text stationNameText;
     
     private ContextMenu stationMenu;
-    private final StationService stationService;
+    private final StationRepository stationRepository;
     private volatile boolean isLoadingStations = false;
     private static StationResponse selectedStation; // Static to persist across controller instances
     
+    static {
+        // Keep the selected station in sync with edits and detaches made elsewhere; the repository
+        // publishes on the thread that loaded, selectedStation is only touched on the JavaFX thread
+        StationRepository.getInstance().addListener(stations -> Platform.runLater(() -> {
+            StationResponse current = selectedStation;
+            if (current == null) {
+                return;
+            }
+            selectedStation = stations.stream()
+                .filter(station -> station.id().equals(current.id()))
+                .findFirst()
+                .orElse(null);
+        }));
+    }
+    
     // WebSocket
     private static StompClient stompClient; // Static to share connection across instances
     private static Long currentSubscribedStationId;
+    private static String weatherSubscriptionId;
+    private static WeatherCardController weatherSubscriber; // controller instance the weather handler is bound to
+    private static final Map<Long, String> alertSubscriptionIds = new ConcurrentHashMap<>(); // stationId -> subscriptionId
+    private static String userAlertSubscriptionId; // used instead when the server has a user-level alert destination
+    private boolean liveDataShown; // FX thread only; a stored reading never replaces live data
     
     public WeatherCardController() {
-        this.stationService = new StationService();
+        this.stationRepository = StationRepository.getInstance();
     }
     
     @FXML
@@ -74,8 +106,7 @@ public class WeatherCardController {
     
     private void initializeWebSocket() {
         if (stompClient == null) {
-            stompClient = new StompClient();
-            stompClient.setAlertHandler(this::handleAlert);
+            stompClient = StompClient.getInstance();
             stompClient.setConnectionStatusHandler(this::handleConnectionStatus);
             
             // Set disable callback for AlertNotificationManager
@@ -86,6 +117,14 @@ public class WeatherCardController {
             com.nhom.weatherdesktop.util.AlertNotificationManager.getInstance()
                 .setOnEnableCallback(this::subscribeToAllAlerts);
             
+            // Reconnect with the new token whenever the access token is refreshed
+            TokenRefreshService.getInstance().addListener(accessToken -> {
+                if (stompClient != null) {
+                    logger.info("Access token refreshed, reconnecting WebSocket");
+                    stompClient.reconnect();
+                }
+            });
+            
             // Connect to WebSocket
             AppConfig config = AppConfig.getInstance();
             String wsUrl = config.getWebSocketUrl();
@@ -96,11 +135,6 @@ public class WeatherCardController {
             // Subscribe to all alerts after connection
             subscribeToAllAlerts();
         }
-        
-        // ALWAYS set weather data handler to ensure new controller instance receives updates
-        // This is critical when controller is recreated (e.g., tab switch)
-        stompClient.setWeatherDataHandler(this::handleWeatherData);
-        logger.debug("Weather data handler set for this controller instance");
     }
     
     private void subscribeToAllAlerts() {
@@ -109,37 +143,49 @@ public class WeatherCardController {
             return;
         }
         
-        new Thread(() -> {
+        if (stompClient == null) {
+            return;
+        }
+        
+        // One destination for all stations when the server routes alerts per user
+        String userDestination = AppConfig.getInstance().getWebSocketAlertDestination();
+        if (!userDestination.isEmpty()) {
+            if (userAlertSubscriptionId == null) {
+                userAlertSubscriptionId = stompClient.subscribe(userDestination, AlertResponse.class, WeatherCardController::handleAlert);
+                logger.info("Subscribed to user alert destination: {}", userDestination);
+            }
+            return;
+        }
+        
+        TaskExecutor.getInstance().submit("subscribe-alerts", () -> {
             try {
-                int retries = 30;
-                while (stompClient != null && !stompClient.isConnected() && retries > 0) {
-                    Thread.sleep(100);
-                    retries--;
-                }
-                
-                if (stompClient == null || !stompClient.isConnected()) {
-                    logger.warn("WebSocket not connected, cannot subscribe to alerts");
-                    return;
-                }
-                
-                PageResponse<StationResponse> response = stationService.getMyStations(0, 100);
+                // Subscriptions are registered in the client and sent once it is (re)connected;
+                // the repository serves its cached station list when it is fresh
+                List<StationResponse> stations = stationRepository.getStations();
                 
                 Platform.runLater(() -> {
-                    for (StationResponse station : response.content()) {
-                        String alertTopic = "/topic/stations/" + station.id() + "/alerts";
-                        stompClient.subscribe(alertTopic, "alert");
+                    List<Long> stationIds = stations.stream()
+                        .map(StationResponse::id)
+                        .filter(stationId -> !alertSubscriptionIds.containsKey(stationId))
+                        .toList();
+                    List<String> subscriptionIds = stompClient.subscribeAll(
+                        stationIds.stream().map(stationId -> "/topic/stations/" + stationId + "/alerts").toList(),
+                        AlertResponse.class, WeatherCardController::handleAlert);
+                    for (int i = 0; i < stationIds.size(); i++) {
+                        alertSubscriptionIds.put(stationIds.get(i), subscriptionIds.get(i));
                     }
-                    logger.info("Subscribed to {} station alert topics", response.content().size());
+                    logger.info("Subscribed to {} station alert topics", stationIds.size());
                 });
                 
             } catch (Exception e) {
                 logger.error("Failed to subscribe to alert topics: {}", e.getMessage(), e);
             }
-        }).start();
+        });
     }
     
     private void handleWeatherData(WeatherDataResponse data) {
         logger.debug("Received weather data: temp={}, humidity={}", data.temperature(), data.humidity());
+        liveDataShown = true;
         updateWeatherData(
             data.temperature(),
             data.humidity(),
@@ -149,7 +195,7 @@ public class WeatherCardController {
         );
     }
     
-    private void handleAlert(AlertResponse alert) {
+    private static void handleAlert(AlertResponse alert) {
         logger.info("Received alert for station {}: {}", alert.stationId(), alert.message());
         
         // Show notification dialog
@@ -157,27 +203,20 @@ public class WeatherCardController {
     }
     
     private void unsubscribeFromAllAlerts() {
-        if (stompClient == null || !stompClient.isConnected()) {
-            logger.warn("Cannot unsubscribe: WebSocket not connected");
+        if (stompClient == null) {
             return;
         }
         
-        new Thread(() -> {
-            try {
-                PageResponse<StationResponse> response = stationService.getMyStations(0, 100);
-                
-                Platform.runLater(() -> {
-                    for (StationResponse station : response.content()) {
-                        String alertTopic = "/topic/stations/" + station.id() + "/alerts";
-                        stompClient.unsubscribe(alertTopic);
-                    }
-                    logger.info("Unsubscribed from all {} alert topics", response.content().size());
-                });
-                
-            } catch (Exception e) {
-                logger.error("Failed to unsubscribe from alerts: {}", e.getMessage(), e);
-            }
-        }).start();
+        if (userAlertSubscriptionId != null) {
+            stompClient.unsubscribe(userAlertSubscriptionId);
+            userAlertSubscriptionId = null;
+        }
+        
+        // The subscription ids are known, so no station list is needed; one pipelined write
+        List<String> subscriptionIds = List.copyOf(alertSubscriptionIds.values());
+        alertSubscriptionIds.clear();
+        stompClient.unsubscribeAll(subscriptionIds);
+        logger.info("Unsubscribed from all {} alert topics", subscriptionIds.size());
     }
     
     private void handleConnectionStatus(Boolean connected) {
@@ -202,14 +241,14 @@ public class WeatherCardController {
         }
         
         // Otherwise, load first station from API
-        new Thread(() -> {
+        TaskExecutor.getInstance().submitForScreen("My Station", "load-first-station", () -> {
             try {
                 logger.debug("Loading first station...");
-                PageResponse<StationResponse> response = stationService.getMyStations(0, 1);
+                List<StationResponse> stations = stationRepository.getStations();
                 
-                if (!response.content().isEmpty()) {
-                    selectedStation = response.content().get(0);
+                if (!stations.isEmpty()) {
                     Platform.runLater(() -> {
+                        selectedStation = stations.get(0);
                         stationNameText.setText(selectedStation.name());
                         logger.info("Loaded first station: {}", selectedStation.name());
                         
@@ -226,39 +265,37 @@ public class WeatherCardController {
                 logger.error("Failed to load first station: {}", e.getMessage(), e);
                 Platform.runLater(() -> stationNameText.setText("Current Weather"));
             }
-        }).start();
+        });
     }
     
     private void subscribeToStation(Long stationId) {
-        if (stompClient == null || !stompClient.isConnected()) {
-            logger.warn("Cannot subscribe: WebSocket not connected");
-            // Retry after delay
-            new Thread(() -> {
-                try {
-                    Thread.sleep(1000);
-                    if (stompClient != null && stompClient.isConnected()) {
-                        Platform.runLater(() -> subscribeToStation(stationId));
-                    }
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-            }).start();
+        if (stompClient == null) {
             return;
         }
+        if (!stompClient.isConnected()) {
+            // The client keeps the subscription and sends it once the connection is (re)established
+            logger.debug("WebSocket not connected yet, station {} will be subscribed on connect", stationId);
+        }
         
-        // Unsubscribe from previous station
-        if (currentSubscribedStationId != null) {
-            String oldTopic = "/topic/stations/" + currentSubscribedStationId + "/weather";
-            stompClient.unsubscribe(oldTopic);
-            logger.debug("Unsubscribed from: {}", oldTopic);
+        // Already delivering this station to this controller instance
+        if (weatherSubscriptionId != null && weatherSubscriber == this && stationId.equals(currentSubscribedStationId)) {
+            return;
         }
         
-        // Reset weather values when switching station
+        // Unsubscribe from previous station (or the handler of a replaced controller instance)
+        if (weatherSubscriptionId != null) {
+            stompClient.unsubscribe(weatherSubscriptionId);
+            logger.debug("Unsubscribed from station {} weather", currentSubscribedStationId);
+        }
+        
+        // Reset weather values when switching station, then show the last stored reading until live data arrives
         Platform.runLater(this::resetWeatherValues);
+        showStoredReading(stationId);
         
-        // Subscribe to new station
+        // Subscribe to new station; only the newest reading per frame is rendered
         String topic = "/topic/stations/" + stationId + "/weather";
-        stompClient.subscribe(topic, "weather");
+        weatherSubscriptionId = stompClient.subscribeLatest(topic, WeatherDataResponse.class, this::handleWeatherData);
+        weatherSubscriber = this;
         currentSubscribedStationId = stationId;
         logger.info("Subscribed to weather topic: {}", topic);
         
@@ -266,6 +303,22 @@ public class WeatherCardController {
         SessionContext.setSelectedStationId(stationId);
     }
     
+    private void showStoredReading(Long stationId) {
+        TaskExecutor.getInstance().submitForScreen("My Station", "load-stored-reading", () ->
+            TimeSeriesStore.getInstance().latest(stationId).ifPresent(reading -> Platform.runLater(() -> {
+                if (!liveDataShown && stationId.equals(currentSubscribedStationId) && isComplete(reading)) {
+                    logger.debug("Showing stored reading of station {} from {}", stationId, reading.instant());
+                    updateWeatherData(reading.temperature(), reading.humidity(), reading.windSpeed(),
+                        reading.rainfall(), reading.dust());
+                }
+            })));
+    }
+    
+    private static boolean isComplete(Reading reading) {
+        return !Float.isNaN(reading.temperature()) && !Float.isNaN(reading.humidity()) && !Float.isNaN(reading.windSpeed())
+            && !Float.isNaN(reading.rainfall()) && !Float.isNaN(reading.dust());
+    }
+    
     @FXML
     private void handleMenuClick() {
         logger.debug("Menu button clicked");
@@ -289,23 +342,23 @@ public class WeatherCardController {
         
         // Load stations in background
         isLoadingStations = true;
-        new Thread(() -> {
+        TaskExecutor.getInstance().submitForScreen("My Station", "load-station-menu", () -> {
             try {
                 logger.debug("Starting station fetch...");
-                PageResponse<StationResponse> response = stationService.getMyStations(0, 10);
-                logger.info("Fetched {} stations", response.content().size());
+                List<StationResponse> stations = stationRepository.getStations().stream().limit(10).toList();
+                logger.info("Fetched {} stations", stations.size());
                 
                 Platform.runLater(() -> {
-                    if (response.content().isEmpty()) {
+                    if (stations.isEmpty()) {
                         logger.debug("No stations found");
                         // Show empty message
                         CustomMenuItem emptyItem = new CustomMenuItem(new Text("No stations found"));
                         emptyItem.setDisable(true);
                         stationMenu.getItems().add(emptyItem);
                     } else {
-                        logger.debug("Adding {} station items", response.content().size());
+                        logger.debug("Adding {} station items", stations.size());
                         // Add station items
-                        for (StationResponse station : response.content()) {
+                        for (StationResponse station : stations) {
                             try {
                                 logger.debug("Loading item for station: {}", station.name());
                                 FXMLLoader loader = new FXMLLoader(
@@ -339,7 +392,7 @@ public class WeatherCardController {
                     }
                     
                     // Add separator and "Add Station" button at the bottom
-                    if (!response.content().isEmpty()) {
+                    if (!stations.isEmpty()) {
                         stationMenu.getItems().add(new javafx.scene.control.SeparatorMenuItem());
                     }
                     
@@ -408,18 +461,34 @@ public class WeatherCardController {
             } finally {
                 isLoadingStations = false;
             }
-        }).start();
+        });
     }
     
     public void updateWeatherData(double temp, double humidity, double windSpeed, double rainfall, double dust) {
-        temperatureValue.setText(String.format("%.1f", temp));
-        humidityValue.setText(String.format("%.0f", humidity));
-        windSpeedValue.setText(String.format("%.1f", windSpeed));
-        rainfallValue.setText(String.format("%.1f", rainfall));
-        dustValue.setText(String.format("%.0f", dust));
+        setIfChanged(temperatureValue, ONE_DECIMAL.format(temp));
+        setIfChanged(humidityValue, NO_DECIMALS.format(humidity));
+        setIfChanged(windSpeedValue, ONE_DECIMAL.format(windSpeed));
+        setIfChanged(rainfallValue, ONE_DECIMAL.format(rainfall));
+        setIfChanged(dustValue, NO_DECIMALS.format(dust));
+    }
+    
+    /**
+     * Skip the property change (and the relayout it triggers) when the shown value is the same
+     */
+    private static void setIfChanged(Text text, String value) {
+        if (!value.equals(text.getText())) {
+            text.setText(value);
+        }
+    }
+    
+    private static DecimalFormat decimalFormat(String pattern) {
+        DecimalFormat format = new DecimalFormat(pattern);
+        format.setRoundingMode(RoundingMode.HALF_UP);
+        return format;
     }
     
     private void resetWeatherValues() {
+        liveDataShown = false;
         temperatureValue.setText("__");
         humidityValue.setText("__");
         windSpeedValue.setText("__");
@@ -0,0 +1,6 @@
+package com.nhom.weatherdesktop.dto.request;
+
+public record RefreshTokenRequest(
+        String refreshToken
+) {
+}
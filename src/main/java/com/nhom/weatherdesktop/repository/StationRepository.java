@@ -0,0 +1,211 @@
+package com.nhom.weatherdesktop.repository;
+
+import com.nhom.weatherdesktop.dto.request.AddStationRequest;
+import com.nhom.weatherdesktop.dto.request.UpdateStationRequest;
+import com.nhom.weatherdesktop.dto.response.StationResponse;
+import com.nhom.weatherdesktop.service.StationService;
+import com.nhom.weatherdesktop.service.interfaces.IStationService;
+import com.nhom.weatherdesktop.util.AppConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Client-side cache of the current user's stations
+ * The list is fetched once and reused until its TTL expires or it is invalidated;
+ * station mutations go through here so the cache stays in sync, and listeners are
+ * notified with the new list whenever it changes
+ */
+public class StationRepository {
+    
+    private static final Logger logger = LoggerFactory.getLogger(StationRepository.class);
+    private static final int FETCH_SIZE = 100;
+    private static StationRepository instance;
+    
+    private final IStationService stationService;
+    private final long ttlMillis;
+    private final List<Consumer<List<StationResponse>>> listeners = new CopyOnWriteArrayList<>();
+    private volatile Snapshot snapshot;
+    
+    private StationRepository() {
+        this.stationService = new StationService();
+        this.ttlMillis = AppConfig.getInstance().getStationCacheTtl() * 1000L;
+    }
+    
+    public static synchronized StationRepository getInstance() {
+        if (instance == null) {
+            instance = new StationRepository();
+        }
+        return instance;
+    }
+    
+    /**
+     * Get all stations of the current user, fetching them only when the cache is empty or expired
+     */
+    public List<StationResponse> getStations() {
+        Snapshot current = snapshot;
+        if (current == null || current.isExpired(ttlMillis)) {
+            current = load();
+        }
+        return current.stations();
+    }
+    
+    /**
+     * Find a station by id with a map lookup
+     * A station missing from an expired cache triggers a reload (it may have just been added)
+     */
+    public Optional<StationResponse> findById(Long id) {
+        Snapshot current = snapshot;
+        if (current == null || (!current.byId().containsKey(id) && current.isExpired(ttlMillis))) {
+            current = load();
+        }
+        return Optional.ofNullable(current.byId().get(id));
+    }
+    
+    /**
+     * Force the next access to fetch from the backend
+     */
+    public void invalidate() {
+        snapshot = null;
+        logger.debug("Station cache invalidated");
+    }
+    
+    /**
+     * Fetch the station list now and notify listeners
+     */
+    public List<StationResponse> refresh() {
+        invalidate();
+        return getStations();
+    }
+    
+    // ========== Mutations ==========
+    
+    public StationResponse addStation(AddStationRequest request) {
+        StationResponse response = stationService.addStationToUser(request);
+        upsert(response);
+        return response;
+    }
+    
+    public StationResponse updateStation(Long id, UpdateStationRequest request) {
+        StationResponse response = stationService.updateStation(id, request);
+        upsert(response);
+        return response;
+    }
+    
+    public StationResponse updateStationSharing(Long id) {
+        StationResponse response = stationService.updateStationSharing(id);
+        upsert(response);
+        return response;
+    }
+    
+    public void detachStation(Long id) {
+        stationService.detachStationFromUser(id);
+        
+        synchronized (this) {
+            Snapshot current = snapshot;
+            if (current == null) {
+                return;
+            }
+            List<StationResponse> stations = new ArrayList<>(current.stations());
+            stations.removeIf(station -> station.id().equals(id));
+            publish(Snapshot.of(stations, current.loadedAt()));
+        }
+    }
+    
+    // ========== Listeners ==========
+    
+    public void addListener(Consumer<List<StationResponse>> listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeListener(Consumer<List<StationResponse>> listener) {
+        listeners.remove(listener);
+    }
+    
+    /**
+     * Fetch the list from the backend; synchronized so concurrent callers share one request
+     */
+    private synchronized Snapshot load() {
+        Snapshot current = snapshot;
+        if (current != null && !current.isExpired(ttlMillis)) {
+            return current;
+        }
+        
+        logger.debug("Loading stations into cache...");
+        List<StationResponse> stations = stationService.getMyStations(0, FETCH_SIZE).content();
+        Snapshot loaded = Snapshot.of(stations, System.currentTimeMillis());
+        
+        if (current != null && current.stations().equals(loaded.stations())) {
+            // Same content - just extend the TTL without notifying
+            snapshot = loaded;
+            return loaded;
+        }
+        
+        publish(loaded);
+        return loaded;
+    }
+    
+    /**
+     * Replace or append a station in the cached list after a successful mutation
+     */
+    private synchronized void upsert(StationResponse station) {
+        Snapshot current = snapshot;
+        if (current == null || station == null) {
+            return;
+        }
+        
+        List<StationResponse> stations = new ArrayList<>(current.stations());
+        boolean replaced = false;
+        for (int i = 0; i < stations.size(); i++) {
+            if (stations.get(i).id().equals(station.id())) {
+                stations.set(i, station);
+                replaced = true;
+                break;
+            }
+        }
+        if (!replaced) {
+            stations.add(station);
+        }
+        
+        publish(Snapshot.of(stations, current.loadedAt()));
+    }
+    
+    private void publish(Snapshot updated) {
+        snapshot = updated;
+        logger.debug("Station cache updated: {} stations", updated.stations().size());
+        
+        for (Consumer<List<StationResponse>> listener : listeners) {
+            try {
+                listener.accept(updated.stations());
+            } catch (Exception e) {
+                logger.error("Station listener failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+    
+    /**
+     * Immutable view of the cached list with its id index
+     */
+    private record Snapshot(List<StationResponse> stations, Map<Long, StationResponse> byId, long loadedAt) {
+        
+        static Snapshot of(List<StationResponse> stations, long loadedAt) {
+            Map<Long, StationResponse> byId = new LinkedHashMap<>();
+            for (StationResponse station : stations) {
+                byId.put(station.id(), station);
+            }
+            return new Snapshot(List.copyOf(stations), Collections.unmodifiableMap(byId), loadedAt);
+        }
+        
+        boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - loadedAt > ttlMillis;
+        }
+    }
+}
@@ -10,6 +10,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class AlertService implements IAlertService {
     
@@ -60,6 +61,26 @@ public class AlertService implements IAlertService {
         }
     }
 
+    @Override
+    public int streamMyAlerts(int page, int size, Consumer<AlertResponse> onAlert) {
+        try {
+            String endpoint = "/alerts/me?page=" + page + "&size=" + size;
+            logger.debug("Streaming alerts: page={}, size={}", page, size);
+            
+            // API returns { "data": [ AlertResponse, ... ] }
+            int count = httpClient.getEach(endpoint, "data", AlertResponse.class, onAlert, true);
+            logger.info("Successfully streamed {} alerts (page {})", count, page);
+            return count;
+            
+        } catch (HttpClientService.HttpException e) {
+            logger.error("HTTP {} error while streaming alerts: {}", e.getStatusCode(), e.getMessage(), e);
+            throw new RuntimeException("Failed to fetch alerts: " + e.getMessage(), e);
+        } catch (IOException e) {
+            logger.error("Network error while streaming alerts: {}", e.getMessage(), e);
+            throw new RuntimeException("Network error while fetching alerts: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public List<AlertResponse> getAllMyAlerts() {
         return List.of();
@@ -50,6 +50,7 @@ public class AuthService implements IAuthService {
             if (response != null) {
                 tokenManager.saveTokens(response.accessToken(), response.refreshToken());
                 userSession.setUserInfo(response.name(), response.email());
+                TokenRefreshService.getInstance().scheduleProactiveRefresh();
                 logger.info("Login successful! User: {}, Email: {}", response.name(), response.email());
             }
             
@@ -95,8 +96,10 @@ public class AuthService implements IAuthService {
     }
     
     public void logout() {
+        TokenRefreshService.getInstance().cancelScheduledRefresh();
         tokenManager.clearTokens();
         userSession.clear();
+        httpClient.clearResponseCache();
     }
     
     public boolean isLoggedIn() {
@@ -1,83 +1,530 @@
 package com.nhom.weatherdesktop.service;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.nhom.weatherdesktop.util.AppConfig;
 import com.nhom.weatherdesktop.util.TokenManager;
+import javafx.application.Platform;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.PushbackInputStream;
+import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
 
 /**
  * HTTP Client Service for making REST API calls
+ * All verbs share one long-lived HttpClient so connections are pooled and kept alive
+ * (HTTP/2 is negotiated when the backend supports it)
+ * Concurrent identical GETs are coalesced into a single request whose body is shared
+ * Responses are requested gzip/deflate-compressed and decompressed while being streamed
+ * Idempotent requests are retried with backoff, and each endpoint family has a circuit breaker
  */
 public class HttpClientService {
     private static final Logger logger = LoggerFactory.getLogger(HttpClientService.class);
+    private static final int MAX_ERROR_BODY_BYTES = 4096;
     private static HttpClientService instance;
     private final ObjectMapper objectMapper;
     private final AppConfig config;
     private final TokenManager tokenManager;
+    private final HttpClient httpClient;
+    private final HttpResponseCache responseCache;
+    private final Map<String, CompletableFuture<?>> inFlightGets = new ConcurrentHashMap<>();
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private volatile Executor asyncExecutor;
+    private volatile CacheUser cacheUser;
     
     private HttpClientService() {
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new JavaTimeModule());
         this.config = AppConfig.getInstance();
         this.tokenManager = TokenManager.getInstance();
+        this.httpClient = createHttpClient();
+        this.responseCache = createResponseCache();
+        this.asyncExecutor = createDefaultAsyncExecutor();
     }
     
-    public static HttpClientService getInstance() {
+    public static synchronized HttpClientService getInstance() {
         if (instance == null) {
             instance = new HttpClientService();
         }
         return instance;
     }
     
-    public <T, R> R post(String endpoint, T requestBody, Class<R> responseType) throws IOException, HttpException {
-        return post(endpoint, requestBody, responseType, false);
+    /**
+     * Build the shared transport
+     * The JDK client reads its pool settings from system properties when the first client is created,
+     * so they are applied here unless already overridden on the command line
+     */
+    private HttpClient createHttpClient() {
+        if (System.getProperty("jdk.httpclient.connectionPoolSize") == null) {
+            System.setProperty("jdk.httpclient.connectionPoolSize", String.valueOf(config.getHttpPoolSize()));
+        }
+        if (System.getProperty("jdk.httpclient.keepalive.timeout") == null) {
+            System.setProperty("jdk.httpclient.keepalive.timeout", String.valueOf(config.getHttpIdleTimeout()));
+        }
+        
+        logger.info("Creating shared HTTP client: poolSize={}, idleTimeout={}s",
+            config.getHttpPoolSize(), config.getHttpIdleTimeout());
+        
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofSeconds(config.getApiTimeout()))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
     }
     
-    public <T, R> R post(String endpoint, T requestBody, Class<R> responseType, boolean includeAuth) 
-            throws IOException, HttpException {
+    /**
+     * Cache for conditional GETs, or null when disabled in application.properties
+     */
+    private HttpResponseCache createResponseCache() {
+        if (!config.isHttpCacheEnabled()) {
+            logger.info("HTTP response cache disabled");
+            return null;
+        }
+        return new HttpResponseCache(config.getHttpCacheMaxEntries(), config.getHttpCacheDirectory());
+    }
+    
+    /**
+     * Forget all cached responses (called on logout)
+     */
+    public void clearResponseCache() {
+        if (responseCache != null) {
+            responseCache.clear();
+        }
+    }
+    
+    /**
+     * Default executor for parsing async responses: a small pool of daemon threads
+     * so pending requests never keep the JVM alive
+     */
+    private Executor createDefaultAsyncExecutor() {
+        AtomicInteger threadCounter = new AtomicInteger(1);
+        return Executors.newFixedThreadPool(config.getHttpAsyncPoolSize(), runnable -> {
+            Thread thread = new Thread(runnable, "http-async-" + threadCounter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Replace the executor used to deserialize async responses
+     */
+    public void setAsyncExecutor(Executor executor) {
+        this.asyncExecutor = executor != null ? executor : createDefaultAsyncExecutor();
+    }
+    
+    /**
+     * Re-deliver the outcome of a future on the JavaFX Application Thread,
+     * so callbacks chained on the result can touch the scene graph directly
+     */
+    public static <R> CompletableFuture<R> onFxThread(CompletableFuture<R> future) {
+        CompletableFuture<R> fxFuture = new CompletableFuture<>();
+        future.whenComplete((result, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                fxFuture.completeExceptionally(error);
+            } else {
+                fxFuture.complete(result);
+            }
+        }));
+        return fxFuture;
+    }
+    
+    /**
+     * Create a request builder with the common headers for an API endpoint
+     */
+    private HttpRequest.Builder newRequest(String endpoint, boolean includeAuth) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(config.getApiBaseUrl() + endpoint))
+                .header("Accept", "application/json")
+                .timeout(Duration.ofSeconds(config.getApiTimeout()));
+        
+        if (config.isHttpCompressionEnabled()) {
+            builder.header("Accept-Encoding", "gzip, deflate");
+        }
+        
+        String authorization = includeAuth ? tokenManager.getAuthorizationHeader() : null;
+        if (authorization != null) {
+            builder.header("Authorization", authorization);
+        }
+        
+        return builder;
+    }
+    
+    /**
+     * Serialize a request body as JSON (or send no body when null)
+     */
+    private <T> HttpRequest.BodyPublisher jsonBody(T requestBody) throws IOException {
+        if (requestBody == null) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(requestBody));
+    }
+    
+    /**
+     * Serialize a request body as JSON and gzip it when it exceeds the configured threshold
+     * (used for PUTs, whose station payloads can get large); sets Content-Encoding accordingly
+     */
+    private <T> HttpRequest.BodyPublisher compressibleJsonBody(HttpRequest.Builder builder, T requestBody)
+            throws IOException {
+        if (requestBody == null) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
         
-        String fullUrl = config.getApiBaseUrl() + endpoint;
-        URL url = new URL(fullUrl);
-        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        byte[] json = objectMapper.writeValueAsBytes(requestBody);
+        int threshold = config.getHttpRequestCompressionThreshold();
+        if (threshold <= 0 || json.length < threshold) {
+            return HttpRequest.BodyPublishers.ofByteArray(json);
+        }
         
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(json);
+        }
+        logger.debug("Compressed request body: {} -> {} bytes", json.length, compressed.size());
+        builder.header("Content-Encoding", "gzip");
+        return HttpRequest.BodyPublishers.ofByteArray(compressed.toByteArray());
+    }
+    
+    /**
+     * Response body as a stream, decompressed on the fly according to Content-Encoding
+     */
+    private InputStream decodedBody(HttpResponse<InputStream> response) throws IOException {
+        String encoding = response.headers().firstValue("Content-Encoding").orElse("identity").trim();
+        boolean gzip = encoding.equalsIgnoreCase("gzip") || encoding.equalsIgnoreCase("x-gzip");
+        boolean deflate = encoding.equalsIgnoreCase("deflate");
+        if (!gzip && !deflate) {
+            return response.body();
+        }
+        
+        // 204/304 and some error responses carry the header without a body; don't try to decompress nothing
+        PushbackInputStream body = new PushbackInputStream(response.body(), 1);
+        int first = body.read();
+        if (first < 0) {
+            return body;
+        }
+        body.unread(first);
+        
+        return gzip ? new GZIPInputStream(body, 8192) : new InflaterInputStream(body);
+    }
+    
+    /**
+     * Send a request over the shared client and expose the body as a stream
+     */
+    private HttpResponse<InputStream> send(HttpRequest request) throws IOException {
         try {
-            connection.setRequestMethod("POST");
-            connection.setRequestProperty("Content-Type", "application/json");
-            connection.setRequestProperty("Accept", "application/json");
-            connection.setDoOutput(true);
-            connection.setConnectTimeout(config.getApiTimeout() * 1000);
-            connection.setReadTimeout(config.getApiTimeout() * 1000);
-            
-            if (includeAuth && tokenManager.isAuthenticated()) {
-                connection.setRequestProperty("Authorization", tokenManager.getAuthorizationHeader());
+            return httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Request interrupted", e);
+        }
+    }
+    
+    /**
+     * Send a request through the circuit breaker of its endpoint family and read the response
+     * Idempotent requests are retried on network errors and transient statuses with exponential
+     * backoff and full jitter; everything else gets exactly one attempt.
+     * An authenticated request rejected with 401 is replayed once after the access token is refreshed
+     */
+    private <R> R execute(HttpRequest request, boolean idempotent, ResponseReader<InputStream, R> reader)
+            throws IOException, HttpException {
+        CircuitBreaker breaker = circuitBreaker(request);
+        int maxAttempts = idempotent ? Math.max(1, config.getHttpRetryMaxAttempts()) : 1;
+        boolean replayed = false;
+        
+        for (int attempt = 1; ; attempt++) {
+            if (!breaker.allowRequest()) {
+                throw circuitOpen(breaker);
             }
             
-            if (requestBody != null) {
-                String jsonBody = objectMapper.writeValueAsString(requestBody);
-                try (OutputStream os = connection.getOutputStream()) {
-                    byte[] input = jsonBody.getBytes(StandardCharsets.UTF_8);
-                    os.write(input, 0, input.length);
+            HttpResponse<InputStream> response;
+            try {
+                response = send(request);
+            } catch (IOException e) {
+                breaker.recordFailure();
+                if (attempt >= maxAttempts || Thread.currentThread().isInterrupted()) {
+                    throw e;
                 }
+                logger.warn("{} {} failed ({}), retrying (attempt {}/{})",
+                    request.method(), request.uri().getPath(), e.getMessage(), attempt + 1, maxAttempts);
+                sleep(backoffDelay(attempt, null));
+                continue;
             }
             
-            int responseCode = connection.getResponseCode();
+            recordOutcome(breaker, response.statusCode());
+            if (response.statusCode() == 401 && !replayed && canRefresh(request)) {
+                String authorization = refreshedAuthorization(request).join();
+                if (authorization != null) {
+                    // Replay once with the new token; the replay does not use up a retry
+                    discard(response);
+                    request = withAuthorization(request, authorization);
+                    replayed = true;
+                    attempt--;
+                    continue;
+                }
+            }
+            if (attempt < maxAttempts && isRetryableStatus(response.statusCode())) {
+                logger.warn("{} {} returned {}, retrying (attempt {}/{})",
+                    request.method(), request.uri().getPath(), response.statusCode(), attempt + 1, maxAttempts);
+                discard(response);
+                sleep(backoffDelay(attempt, response));
+                continue;
+            }
             
+            return reader.read(response);
+        }
+    }
+    
+    /**
+     * Send a request without blocking and hand the response to the given reader on the async executor
+     * Retries follow the same policy as {@link #execute}, with the backoff scheduled instead of slept
+     */
+    private <R> CompletableFuture<R> sendAsync(HttpRequest request, boolean idempotent,
+                                               ResponseReader<InputStream, R> reader) {
+        int maxAttempts = idempotent ? Math.max(1, config.getHttpRetryMaxAttempts()) : 1;
+        CircuitBreaker breaker = circuitBreaker(request);
+        return sendAsyncAttempt(request, breaker, 1, maxAttempts)
+                .thenCompose(response -> {
+                    if (response.statusCode() != 401 || !canRefresh(request)) {
+                        return CompletableFuture.completedFuture(response);
+                    }
+                    return refreshedAuthorization(request).thenCompose(authorization -> {
+                        if (authorization == null) {
+                            return CompletableFuture.completedFuture(response);
+                        }
+                        discard(response);
+                        return sendAsyncAttempt(withAuthorization(request, authorization), breaker, 1, maxAttempts);
+                    });
+                })
+                .thenApplyAsync(response -> {
+                    try {
+                        return reader.read(response);
+                    } catch (IOException | HttpException e) {
+                        throw new CompletionException(e);
+                    }
+                }, asyncExecutor);
+    }
+    
+    private CompletableFuture<HttpResponse<InputStream>> sendAsyncAttempt(HttpRequest request, CircuitBreaker breaker,
+                                                                          int attempt, int maxAttempts) {
+        if (!breaker.allowRequest()) {
+            return CompletableFuture.failedFuture(circuitOpen(breaker));
+        }
+        
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .handle((response, error) -> {
+                    if (error != null) {
+                        breaker.recordFailure();
+                    } else {
+                        recordOutcome(breaker, response.statusCode());
+                    }
+                    
+                    boolean retry = attempt < maxAttempts
+                        && (error != null || isRetryableStatus(response.statusCode()));
+                    if (!retry) {
+                        return error != null
+                            ? CompletableFuture.<HttpResponse<InputStream>>failedFuture(error)
+                            : CompletableFuture.completedFuture(response);
+                    }
+                    
+                    logger.warn("{} {} failed ({}), retrying (attempt {}/{})", request.method(), request.uri().getPath(),
+                        error != null ? error.getMessage() : response.statusCode(), attempt + 1, maxAttempts);
+                    if (response != null) {
+                        discard(response);
+                    }
+                    Executor delayed = CompletableFuture.delayedExecutor(
+                        backoffDelay(attempt, response).toMillis(), TimeUnit.MILLISECONDS, asyncExecutor);
+                    return CompletableFuture.supplyAsync(() -> null, delayed)
+                        .thenCompose(ignored -> sendAsyncAttempt(request, breaker, attempt + 1, maxAttempts));
+                })
+                .thenCompose(Function.identity());
+    }
+    
+    /**
+     * Only requests that carried a token can be fixed by refreshing it
+     */
+    private boolean canRefresh(HttpRequest request) {
+        return request.headers().firstValue("Authorization").isPresent() && tokenManager.getRefreshToken() != null;
+    }
+    
+    /**
+     * Authorization header to replay a 401'd request with, or null when the token could not be refreshed
+     * If another request already refreshed the token since this one was sent, the new token is used as-is
+     */
+    private CompletableFuture<String> refreshedAuthorization(HttpRequest request) {
+        String sent = request.headers().firstValue("Authorization").orElse(null);
+        String current = tokenManager.getAuthorizationHeader();
+        if (current != null && !current.equals(sent)) {
+            return CompletableFuture.completedFuture(current);
+        }
+        return TokenRefreshService.getInstance().refresh().exceptionally(error -> null);
+    }
+    
+    private HttpRequest withAuthorization(HttpRequest request, String authorization) {
+        return HttpRequest.newBuilder(request, (name, value) -> !name.equalsIgnoreCase("Authorization"))
+                .header("Authorization", authorization)
+                .build();
+    }
+    
+    /**
+     * Breaker of the endpoint family a request belongs to: the first path segment after the API base
+     * (stations, alerts, weather-data, thresholds, ...)
+     */
+    private CircuitBreaker circuitBreaker(HttpRequest request) {
+        String path = request.uri().getPath();
+        String basePath = URI.create(config.getApiBaseUrl()).getPath();
+        if (basePath != null && path.startsWith(basePath)) {
+            path = path.substring(basePath.length());
+        }
+        
+        String family = path.startsWith("/") ? path.substring(1) : path;
+        int slash = family.indexOf('/');
+        if (slash >= 0) {
+            family = family.substring(0, slash);
+        }
+        
+        return circuitBreakers.computeIfAbsent(family.isEmpty() ? "root" : family, name -> new CircuitBreaker(
+            name, config.getHttpCircuitFailureThreshold(), config.getHttpCircuitOpenSeconds() * 1000L));
+    }
+    
+    private HttpException circuitOpen(CircuitBreaker breaker) {
+        logger.debug("Circuit '{}' is open, failing fast", breaker.getName());
+        return new HttpException(503, "Service temporarily unavailable - Please try again later");
+    }
+    
+    /**
+     * Server errors count against the breaker; any other answer shows the backend is reachable
+     */
+    private void recordOutcome(CircuitBreaker breaker, int statusCode) {
+        if (statusCode >= 500) {
+            breaker.recordFailure();
+        } else {
+            breaker.recordSuccess();
+        }
+    }
+    
+    private boolean isRetryableStatus(int statusCode) {
+        return statusCode == 429 || statusCode == 502 || statusCode == 503 || statusCode == 504;
+    }
+    
+    /**
+     * Full-jitter exponential backoff: a random delay up to base * 2^(attempt-1), capped,
+     * but never shorter than a Retry-After the server asked for
+     */
+    private Duration backoffDelay(int attempt, HttpResponse<?> response) {
+        long cap = Math.min(config.getHttpRetryMaxDelayMillis(),
+            config.getHttpRetryBaseDelayMillis() * (1L << Math.min(attempt - 1, 20)));
+        long delay = ThreadLocalRandom.current().nextLong(cap + 1);
+        
+        if (response != null) {
+            long retryAfterMillis = response.headers().firstValue("Retry-After")
+                .filter(value -> value.chars().allMatch(Character::isDigit))
+                .map(value -> Long.parseLong(value) * 1000L)
+                .orElse(0L);
+            delay = Math.max(delay, Math.min(retryAfterMillis, config.getHttpRetryMaxDelayMillis()));
+        }
+        
+        return Duration.ofMillis(delay);
+    }
+    
+    private void sleep(Duration delay) throws IOException {
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Request interrupted", e);
+        }
+    }
+    
+    /**
+     * Release the connection of a response that is not going to be read
+     */
+    private void discard(HttpResponse<InputStream> response) {
+        try (InputStream body = response.body()) {
+            body.transferTo(OutputStream.nullOutputStream());
+        } catch (IOException ignored) {
+            // Connection is dropped instead of reused
+        }
+    }
+    
+    /**
+     * Read the error body of a failed response, falling back to the given message
+     * Only the first few KB are read, so a large error page is never buffered in full
+     */
+    private String readErrorBody(InputStream body, String fallback) {
+        try {
+            String errorBody = new String(body.readNBytes(MAX_ERROR_BODY_BYTES), StandardCharsets.UTF_8);
+            return errorBody.isEmpty() ? fallback : errorBody;
+        } catch (Exception ignored) {
+            return fallback;
+        }
+    }
+    
+    // ========== POST ==========
+    
+    public <T, R> R post(String endpoint, T requestBody, Class<R> responseType) throws IOException, HttpException {
+        return post(endpoint, requestBody, responseType, false);
+    }
+    
+    public <T, R> R post(String endpoint, T requestBody, Class<R> responseType, boolean includeAuth)
+            throws IOException, HttpException {
+        return execute(buildPostRequest(endpoint, requestBody, includeAuth), false,
+            response -> readPostResponse(response, responseType));
+    }
+    
+    public <T, R> CompletableFuture<R> postAsync(String endpoint, T requestBody, Class<R> responseType, boolean includeAuth) {
+        try {
+            return sendAsync(buildPostRequest(endpoint, requestBody, includeAuth), false,
+                response -> readPostResponse(response, responseType));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    private <T> HttpRequest buildPostRequest(String endpoint, T requestBody, boolean includeAuth) throws IOException {
+        return newRequest(endpoint, includeAuth)
+                .header("Content-Type", "application/json")
+                .POST(jsonBody(requestBody))
+                .build();
+    }
+    
+    private <R> R readPostResponse(HttpResponse<InputStream> response, Class<R> responseType)
+            throws IOException, HttpException {
+        int responseCode = response.statusCode();
+        
+        try (InputStream body = decodedBody(response)) {
             if (responseCode >= 200 && responseCode < 300) {
                 if (responseType != null && responseType != Void.class) {
-                    return objectMapper.readValue(connection.getInputStream(), responseType);
+                    return objectMapper.readValue(body, responseType);
                 }
                 return null;
             } else if (responseCode == 401) {
@@ -87,53 +534,45 @@ public class HttpClientService {
             } else if (responseCode >= 500) {
                 throw new HttpException(responseCode, "Server error - Please try again later");
             } else {
-                String errorMessage = "HTTP Error " + responseCode;
-                try {
-                    String errorBody = new String(connection.getErrorStream().readAllBytes(), StandardCharsets.UTF_8);
-                    errorMessage = errorBody;
-                } catch (Exception ignored) {
-                }
-                throw new HttpException(responseCode, errorMessage);
+                throw new HttpException(responseCode, readErrorBody(body, "HTTP Error " + responseCode));
             }
-            
-        } finally {
-            connection.disconnect();
         }
     }
     
-    public <T, R> R put(String endpoint, T requestBody, Class<R> responseType, boolean includeAuth) 
+    // ========== PUT ==========
+    
+    public <T, R> R put(String endpoint, T requestBody, Class<R> responseType, boolean includeAuth)
             throws IOException, HttpException {
-        
-        String fullUrl = config.getApiBaseUrl() + endpoint;
-        URL url = new URL(fullUrl);
-        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-        
+        return execute(buildPutRequest(endpoint, requestBody, includeAuth), true,
+            response -> readPutResponse(endpoint, response, responseType));
+    }
+    
+    public <T, R> CompletableFuture<R> putAsync(String endpoint, T requestBody, Class<R> responseType, boolean includeAuth) {
         try {
-            connection.setRequestMethod("PUT");
-            connection.setRequestProperty("Content-Type", "application/json");
-            connection.setRequestProperty("Accept", "application/json");
-            connection.setDoOutput(true);
-            connection.setConnectTimeout(config.getApiTimeout() * 1000);
-            connection.setReadTimeout(config.getApiTimeout() * 1000);
-            
-            if (includeAuth && tokenManager.isAuthenticated()) {
-                connection.setRequestProperty("Authorization", tokenManager.getAuthorizationHeader());
-            }
-            
-            if (requestBody != null) {
-                String jsonBody = objectMapper.writeValueAsString(requestBody);
-                try (OutputStream os = connection.getOutputStream()) {
-                    byte[] input = jsonBody.getBytes(StandardCharsets.UTF_8);
-                    os.write(input, 0, input.length);
-                }
-            }
-            
-            int responseCode = connection.getResponseCode();
-            logger.debug("PUT {} - Response code: {}", endpoint, responseCode);
-            
+            return sendAsync(buildPutRequest(endpoint, requestBody, includeAuth), true,
+                response -> readPutResponse(endpoint, response, responseType));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    private <T> HttpRequest buildPutRequest(String endpoint, T requestBody, boolean includeAuth) throws IOException {
+        HttpRequest.Builder builder = newRequest(endpoint, includeAuth)
+                .header("Content-Type", "application/json");
+        return builder
+                .PUT(compressibleJsonBody(builder, requestBody))
+                .build();
+    }
+    
+    private <R> R readPutResponse(String endpoint, HttpResponse<InputStream> response, Class<R> responseType)
+            throws IOException, HttpException {
+        int responseCode = response.statusCode();
+        logger.debug("PUT {} - Response code: {}", endpoint, responseCode);
+        
+        try (InputStream body = decodedBody(response)) {
             if (responseCode >= 200 && responseCode < 300) {
                 if (responseType != null && responseType != Void.class) {
-                    return objectMapper.readValue(connection.getInputStream(), responseType);
+                    return objectMapper.readValue(body, responseType);
                 }
                 return null;
             } else if (responseCode == 401) {
@@ -147,23 +586,15 @@ public class HttpClientService {
             } else if (responseCode >= 500) {
                 throw new HttpException(responseCode, "Server error - Please try again later");
             } else {
-                String errorMessage = "HTTP Error " + responseCode;
-                try {
-                    String errorBody = new String(connection.getErrorStream().readAllBytes(), StandardCharsets.UTF_8);
-                    errorMessage = errorBody;
-                } catch (Exception ignored) {
-                }
-                throw new HttpException(responseCode, errorMessage);
+                throw new HttpException(responseCode, readErrorBody(body, "HTTP Error " + responseCode));
             }
-            
-        } finally {
-            connection.disconnect();
         }
     }
     
+    // ========== PATCH ==========
+    
     /**
      * Performs a PATCH HTTP request with TypeReference for generic response types
-     * Uses Java 11+ HttpClient to properly support PATCH method
      * @param endpoint API endpoint (relative to base URL)
      * @param requestBody Request body to send (can be null for PATCH with no body)
      * @param typeRef TypeReference for deserializing the response
@@ -172,53 +603,37 @@ public class HttpClientService {
      * @throws IOException If a network error occurs
      * @throws HttpException If the server returns an error response
      */
-    public <T, R> R patch(String endpoint, T requestBody, com.fasterxml.jackson.core.type.TypeReference<R> typeRef, boolean includeAuth) 
+    public <T, R> R patch(String endpoint, T requestBody, TypeReference<R> typeRef, boolean includeAuth)
             throws IOException, HttpException {
         
-        String fullUrl = config.getApiBaseUrl() + endpoint;
-        
+        return execute(buildPatchRequest(endpoint, requestBody, includeAuth), false,
+            response -> readPatchResponse(endpoint, response, typeRef));
+    }
+    
+    public <T, R> CompletableFuture<R> patchAsync(String endpoint, T requestBody, TypeReference<R> typeRef, boolean includeAuth) {
         try {
-            // Create HttpClient
-            HttpClient client = HttpClient.newBuilder()
-                    .connectTimeout(Duration.ofSeconds(config.getApiTimeout()))
-                    .build();
-            
-            // Build request body
-            HttpRequest.BodyPublisher bodyPublisher;
-            if (requestBody != null) {
-                String jsonBody = objectMapper.writeValueAsString(requestBody);
-                bodyPublisher = HttpRequest.BodyPublishers.ofString(jsonBody, StandardCharsets.UTF_8);
-            } else {
-                bodyPublisher = HttpRequest.BodyPublishers.noBody();
-            }
-            
-            // Build request
-            HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
-                    .uri(URI.create(fullUrl))
-                    .method("PATCH", bodyPublisher)
-                    .header("Content-Type", "application/json")
-                    .header("Accept", "application/json")
-                    .timeout(Duration.ofSeconds(config.getApiTimeout()));
-            
-            // Add authentication if needed
-            if (includeAuth && tokenManager.isAuthenticated()) {
-                requestBuilder.header("Authorization", tokenManager.getAuthorizationHeader());
-            }
-            
-            HttpRequest request = requestBuilder.build();
-            
-            // Send request and get response
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
-            
-            int responseCode = response.statusCode();
-            logger.debug("PATCH {} - Response code: {}", endpoint, responseCode);
-            
-            // Handle response
+            return sendAsync(buildPatchRequest(endpoint, requestBody, includeAuth), false,
+                response -> readPatchResponse(endpoint, response, typeRef));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    private <T> HttpRequest buildPatchRequest(String endpoint, T requestBody, boolean includeAuth) throws IOException {
+        return newRequest(endpoint, includeAuth)
+                .header("Content-Type", "application/json")
+                .method("PATCH", jsonBody(requestBody))
+                .build();
+    }
+    
+    private <R> R readPatchResponse(String endpoint, HttpResponse<InputStream> response, TypeReference<R> typeRef)
+            throws IOException, HttpException {
+        int responseCode = response.statusCode();
+        logger.debug("PATCH {} - Response code: {}", endpoint, responseCode);
+        
+        try (InputStream body = decodedBody(response)) {
             if (responseCode >= 200 && responseCode < 300) {
-                if (typeRef != null && !response.body().isEmpty()) {
-                    return objectMapper.readValue(response.body(), typeRef);
-                }
-                return null;
+                return typeRef != null ? readOptionalValue(body, typeRef) : null;
             } else if (responseCode == 401) {
                 throw new HttpException(401, "Unauthorized - Invalid credentials");
             } else if (responseCode == 403) {
@@ -228,51 +643,214 @@ public class HttpClientService {
             } else if (responseCode >= 500) {
                 throw new HttpException(responseCode, "Server error - Please try again later");
             } else {
-                String errorMessage = "HTTP Error " + responseCode;
-                if (!response.body().isEmpty()) {
-                    errorMessage = response.body();
-                }
-                throw new HttpException(responseCode, errorMessage);
+                throw new HttpException(responseCode, readErrorBody(body, "HTTP Error " + responseCode));
             }
-            
+        }
+    }
+    
+    /**
+     * Parse a body straight from the stream, returning null for an empty body
+     */
+    private <R> R readOptionalValue(InputStream body, TypeReference<R> typeRef) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() == null) {
+                return null;
+            }
+            return objectMapper.readValue(parser, typeRef);
+        }
+    }
+    
+    // ========== GET ==========
+    
+    /**
+     * Performs a GET request
+     * If an identical GET (same endpoint and user) is already in flight, this call waits for it
+     * instead of sending another request; only the body is shared, every caller deserializes
+     * its own result, so callers are free to modify what they get
+     */
+    public <R> R get(String endpoint, TypeReference<R> typeRef, boolean includeAuth)
+            throws IOException, HttpException {
+        
+        logger.debug("GET request to: {}", config.getApiBaseUrl() + endpoint);
+        logger.debug("Auth required: {}, Is authenticated: {}", includeAuth, tokenManager.isAuthenticated());
+        
+        // The shared request runs on the HTTP client rather than on this thread, and every caller waits
+        // on its own copy of it, so interrupting one caller (a cancelled screen task) fails only that caller
+        return awaitFlight(getAsync(endpoint, typeRef, includeAuth));
+    }
+    
+    public <R> CompletableFuture<R> getAsync(String endpoint, TypeReference<R> typeRef, boolean includeAuth) {
+        logger.debug("Async GET request to: {}", config.getApiBaseUrl() + endpoint);
+        CompletableFuture<byte[]> body = coalesce(flightKey(endpoint, includeAuth), () -> {
+            String cacheKey = cacheKey(endpoint, includeAuth);
+            HttpResponseCache.Entry cached = cachedEntry(cacheKey);
+            return sendAsync(buildGetRequest(endpoint, includeAuth, cached), true,
+                response -> readGetResponse(cacheKey, cached, response));
+        });
+        return body.thenApplyAsync(bytes -> {
+            try {
+                return objectMapper.readValue(bytes, typeRef);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, asyncExecutor);
+    }
+    
+    /**
+     * Key identifying identical GETs: the same endpoint, read by the same user
+     */
+    private String flightKey(String endpoint, boolean includeAuth) {
+        String authorization = includeAuth ? tokenManager.getAuthorizationHeader() : null;
+        return endpoint + "|" + (authorization != null ? authorization : "");
+    }
+    
+    /**
+     * Register a new in-flight GET, or return the one already running under the same key
+     */
+    @SuppressWarnings("unchecked")
+    private <R> CompletableFuture<R> joinFlight(String flightKey, CompletableFuture<R> flight) {
+        CompletableFuture<R> existing = (CompletableFuture<R>) inFlightGets.putIfAbsent(flightKey, flight);
+        if (existing != null) {
+            logger.debug("Joining in-flight GET: {}", flightKey.substring(0, flightKey.indexOf('|')));
+        }
+        return existing;
+    }
+    
+    /**
+     * Start an async GET unless an identical one is in flight
+     * Every caller gets its own copy of the shared future, so cancelling one does not affect the others
+     */
+    private <R> CompletableFuture<R> coalesce(String flightKey, Supplier<CompletableFuture<R>> request) {
+        CompletableFuture<R> flight = new CompletableFuture<>();
+        CompletableFuture<R> existing = joinFlight(flightKey, flight);
+        if (existing != null) {
+            return existing.copy();
+        }
+        
+        request.get().whenComplete((result, error) -> {
+            // Leave the map before completing, so callers arriving afterwards send a fresh request
+            inFlightGets.remove(flightKey, flight);
+            if (error != null) {
+                flight.completeExceptionally(error);
+            } else {
+                flight.complete(result);
+            }
+        });
+        return flight.copy();
+    }
+    
+    /**
+     * Block on this caller's copy of a shared GET, rethrowing its failure as-is
+     */
+    private <R> R awaitFlight(CompletableFuture<R> flight) throws IOException, HttpException {
+        try {
+            return flight.get();
         } catch (InterruptedException e) {
+            // Only this caller's copy is given up; the request carries on for the others
+            flight.cancel(false);
             Thread.currentThread().interrupt();
             throw new IOException("Request interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            } else if (cause instanceof HttpException httpException) {
+                throw httpException;
+            } else if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException(cause);
         }
     }
     
-    public <R> R get(String endpoint, com.fasterxml.jackson.core.type.TypeReference<R> typeRef, boolean includeAuth) 
-            throws IOException, HttpException {
+    /**
+     * Key of a GET in the response cache, or null when caching is disabled
+     */
+    private String cacheKey(String endpoint, boolean includeAuth) {
+        if (responseCache == null) {
+            return null;
+        }
+        return HttpResponseCache.key(config.getApiBaseUrl() + endpoint, cacheUser(includeAuth));
+    }
+    
+    /**
+     * Who cached GETs belong to: the subject of the access token, so entries outlive token refreshes
+     * Falls back to the token itself when it is not a JWT with a subject
+     */
+    private String cacheUser(boolean includeAuth) {
+        String authorization = includeAuth ? tokenManager.getAuthorizationHeader() : null;
+        if (authorization == null) {
+            return null;
+        }
         
-        String fullUrl = config.getApiBaseUrl() + endpoint;
-        logger.debug("GET request to: {}", fullUrl);
+        String token = authorization.substring("Bearer ".length());
+        CacheUser current = cacheUser;
+        if (current != null && current.token().equals(token)) {
+            return current.user();
+        }
         
-        URL url = new URL(fullUrl);
-        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        String subject = TokenRefreshService.subject(token);
+        String user = subject != null ? "sub:" + subject : authorization;
+        cacheUser = new CacheUser(token, user);
+        return user;
+    }
+    
+    private record CacheUser(String token, String user) {
+    }
+    
+    /**
+     * Cached entry whose validators a GET is sent with; the reader of the response gets the same
+     * entry, so a 304 can always be answered even if the cache has evicted it meanwhile
+     */
+    private HttpResponseCache.Entry cachedEntry(String cacheKey) {
+        return cacheKey != null ? responseCache.get(cacheKey) : null;
+    }
+    
+    /**
+     * Build a GET, turning it into a conditional request when validators are cached
+     */
+    private HttpRequest buildGetRequest(String endpoint, boolean includeAuth, HttpResponseCache.Entry cached) {
+        HttpRequest.Builder builder = newRequest(endpoint, includeAuth).GET();
         
-        try {
-            connection.setRequestMethod("GET");
-            connection.setRequestProperty("Accept", "application/json");
-            connection.setConnectTimeout(config.getApiTimeout() * 1000);
-            connection.setReadTimeout(config.getApiTimeout() * 1000);
-            
-            logger.debug("Auth required: {}, Is authenticated: {}", includeAuth, tokenManager.isAuthenticated());
-            
-            if (includeAuth && tokenManager.isAuthenticated()) {
-                String authHeader = tokenManager.getAuthorizationHeader();
-                connection.setRequestProperty("Authorization", authHeader);
-                logger.debug("Added auth header");
+        if (cached != null) {
+            if (cached.etag() != null) {
+                builder.header("If-None-Match", cached.etag());
             }
-            
-            logger.debug("Sending request...");
-            int responseCode = connection.getResponseCode();
-            logger.debug("Response code: {}", responseCode);
-            
-            if (responseCode >= 200 && responseCode < 300) {
-                logger.debug("Reading response body...");
-                R result = objectMapper.readValue(connection.getInputStream(), typeRef);
-                logger.debug("Response parsed successfully");
-                return result;
+            if (cached.lastModified() != null) {
+                builder.header("If-Modified-Since", cached.lastModified());
+            }
+        }
+        
+        return builder.build();
+    }
+    
+    /**
+     * Raw body of a GET response, from the cached entry on 304 Not Modified
+     * The bytes are shared by all callers of a coalesced GET and must not be modified
+     */
+    private byte[] readGetResponse(String cacheKey, HttpResponseCache.Entry cached, HttpResponse<InputStream> response)
+            throws IOException, HttpException {
+        int responseCode = response.statusCode();
+        logger.debug("Response code: {} ({})", responseCode, response.version());
+        
+        try (InputStream body = decodedBody(response)) {
+            if (responseCode == 304 && cached != null) {
+                logger.debug("Not modified, using cached response");
+                return cached.body();
+            } else if (responseCode >= 200 && responseCode < 300) {
+                byte[] bytes = body.readAllBytes();
+                if (cacheKey != null && hasValidators(response)) {
+                    // Keep the raw body so a later 304 can be answered without a transfer
+                    responseCache.put(cacheKey, new HttpResponseCache.Entry(
+                        response.headers().firstValue("ETag").orElse(null),
+                        response.headers().firstValue("Last-Modified").orElse(null),
+                        bytes
+                    ));
+                }
+                return bytes;
             } else if (responseCode == 401) {
                 throw new HttpException(401, "Unauthorized - Please log in again");
             } else if (responseCode == 403) {
@@ -280,48 +858,199 @@ public class HttpClientService {
             } else if (responseCode >= 500) {
                 throw new HttpException(responseCode, "Server error - Please try again later");
             } else {
-                String errorMessage = "HTTP Error " + responseCode;
-                try {
-                    String errorBody = new String(connection.getErrorStream().readAllBytes(), StandardCharsets.UTF_8);
-                    errorMessage = errorBody;
-                    logger.error("HTTP error response body: {}", errorBody);
-                } catch (Exception ignored) {
-                }
+                String errorMessage = readErrorBody(body, "HTTP Error " + responseCode);
+                logger.error("HTTP error response body: {}", errorMessage);
                 throw new HttpException(responseCode, errorMessage);
             }
-            
-        } finally {
-            connection.disconnect();
         }
     }
     
+    private boolean hasValidators(HttpResponse<?> response) {
+        return response.headers().firstValue("ETag").isPresent()
+            || response.headers().firstValue("Last-Modified").isPresent();
+    }
+    
+    // ========== Streaming GET ==========
+    
     /**
-     * Performs a DELETE HTTP request
+     * Performs a GET whose response holds a JSON array, handing each element to the callback
+     * as soon as it has been parsed instead of materializing the whole list first
      * @param endpoint API endpoint (relative to base URL)
+     * @param arrayField Top-level field holding the array (e.g. "data"), or null when the body is the array itself
+     * @param elementType Type of each array element
+     * @param onElement Called on the calling thread for every element, in order
      * @param includeAuth Whether to include authentication token
+     * @return Number of elements delivered
      * @throws IOException If a network error occurs
      * @throws HttpException If the server returns an error response
      */
-    public void delete(String endpoint, boolean includeAuth) throws IOException, HttpException {
-        String fullUrl = config.getApiBaseUrl() + endpoint;
-        URL url = new URL(fullUrl);
-        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    public <E> int getEach(String endpoint, String arrayField, Class<E> elementType, Consumer<E> onElement,
+                           boolean includeAuth) throws IOException, HttpException {
+        logger.debug("Streaming GET request to: {}", config.getApiBaseUrl() + endpoint);
+        String cacheKey = cacheKey(endpoint, includeAuth);
+        HttpResponseCache.Entry cached = cachedEntry(cacheKey);
+        return execute(buildGetRequest(endpoint, includeAuth, cached), true,
+            response -> readEachResponse(cacheKey, cached, response, arrayField, elementType, onElement));
+    }
+    
+    /**
+     * Async variant of {@link #getEach}; the callback runs on the async executor
+     */
+    public <E> CompletableFuture<Integer> getEachAsync(String endpoint, String arrayField, Class<E> elementType,
+                                                       Consumer<E> onElement, boolean includeAuth) {
+        logger.debug("Async streaming GET request to: {}", config.getApiBaseUrl() + endpoint);
+        String cacheKey = cacheKey(endpoint, includeAuth);
+        HttpResponseCache.Entry cached = cachedEntry(cacheKey);
+        return sendAsync(buildGetRequest(endpoint, includeAuth, cached), true,
+            response -> readEachResponse(cacheKey, cached, response, arrayField, elementType, onElement));
+    }
+    
+    private <E> int readEachResponse(String cacheKey, HttpResponseCache.Entry cached, HttpResponse<InputStream> response,
+                                     String arrayField, Class<E> elementType, Consumer<E> onElement)
+            throws IOException, HttpException {
+        int responseCode = response.statusCode();
+        logger.debug("Response code: {} ({})", responseCode, response.version());
         
-        try {
-            connection.setRequestMethod("DELETE");
-            connection.setRequestProperty("Accept", "application/json");
-            connection.setConnectTimeout(config.getApiTimeout() * 1000);
-            connection.setReadTimeout(config.getApiTimeout() * 1000);
+        try (InputStream body = decodedBody(response)) {
+            if (responseCode == 304 && cached != null) {
+                logger.debug("Not modified, streaming cached response");
+                return readElements(new ByteArrayInputStream(cached.body()), arrayField, elementType, onElement);
+            } else if (responseCode >= 200 && responseCode < 300 && cacheKey != null && hasValidators(response)) {
+                // Elements are still delivered while reading; the raw bytes are captured on the side for revalidation
+                CapturingInputStream capturing = new CapturingInputStream(body);
+                int count = readElements(capturing, arrayField, elementType, onElement);
+                responseCache.put(cacheKey, new HttpResponseCache.Entry(
+                    response.headers().firstValue("ETag").orElse(null),
+                    response.headers().firstValue("Last-Modified").orElse(null),
+                    capturing.captured()
+                ));
+                return count;
+            } else if (responseCode >= 200 && responseCode < 300) {
+                return readElements(body, arrayField, elementType, onElement);
+            } else if (responseCode == 401) {
+                throw new HttpException(401, "Unauthorized - Please log in again");
+            } else if (responseCode == 403) {
+                throw new HttpException(403, "Forbidden - Access denied");
+            } else if (responseCode >= 500) {
+                throw new HttpException(responseCode, "Server error - Please try again later");
+            } else {
+                String errorMessage = readErrorBody(body, "HTTP Error " + responseCode);
+                logger.error("HTTP error response body: {}", errorMessage);
+                throw new HttpException(responseCode, errorMessage);
+            }
+        }
+    }
+    
+    /**
+     * Walk the token stream to the array and bind its elements one at a time
+     */
+    private <E> int readElements(InputStream body, String arrayField, Class<E> elementType, Consumer<E> onElement)
+            throws IOException {
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            JsonToken token = parser.nextToken();
             
-            if (includeAuth && tokenManager.isAuthenticated()) {
-                connection.setRequestProperty("Authorization", tokenManager.getAuthorizationHeader());
+            if (arrayField != null && token == JsonToken.START_OBJECT) {
+                token = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if (arrayField.equals(field)) {
+                        token = value;
+                        break;
+                    }
+                    parser.skipChildren();
+                }
             }
             
-            int responseCode = connection.getResponseCode();
+            if (token != JsonToken.START_ARRAY) {
+                logger.debug("No array found in response (field: {})", arrayField);
+                return 0;
+            }
             
+            int count = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                onElement.accept(objectMapper.readValue(parser, elementType));
+                count++;
+            }
+            return count;
+        }
+    }
+    
+    /**
+     * Pass-through stream that keeps a copy of everything read from it
+     */
+    private static final class CapturingInputStream extends FilterInputStream {
+        
+        private final ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        
+        CapturingInputStream(InputStream in) {
+            super(in);
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                copy.write(b);
+            }
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                copy.write(buffer, offset, read);
+            }
+            return read;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            // The parser closes its source once the array is done; read the rest so the copy is the full body
+            try {
+                transferTo(OutputStream.nullOutputStream());
+            } finally {
+                super.close();
+            }
+        }
+        
+        byte[] captured() {
+            return copy.toByteArray();
+        }
+    }
+    
+    // ========== DELETE ==========
+    
+    /**
+     * Performs a DELETE HTTP request
+     * @param endpoint API endpoint (relative to base URL)
+     * @param includeAuth Whether to include authentication token
+     * @throws IOException If a network error occurs
+     * @throws HttpException If the server returns an error response
+     */
+    public void delete(String endpoint, boolean includeAuth) throws IOException, HttpException {
+        execute(buildDeleteRequest(endpoint, includeAuth), true, this::readDeleteResponse);
+    }
+    
+    public CompletableFuture<Void> deleteAsync(String endpoint, boolean includeAuth) {
+        return sendAsync(buildDeleteRequest(endpoint, includeAuth), true,
+            this::readDeleteResponse);
+    }
+    
+    private HttpRequest buildDeleteRequest(String endpoint, boolean includeAuth) {
+        return newRequest(endpoint, includeAuth)
+                .DELETE()
+                .build();
+    }
+    
+    private Void readDeleteResponse(HttpResponse<InputStream> response) throws IOException, HttpException {
+        int responseCode = response.statusCode();
+        
+        try (InputStream body = decodedBody(response)) {
             if (responseCode >= 200 && responseCode < 300) {
                 // Success - 204 No Content expected
-                return;
+                return null;
             } else if (responseCode == 401) {
                 throw new HttpException(401, "Unauthorized - Invalid credentials");
             } else if (responseCode == 403) {
@@ -331,20 +1060,19 @@ public class HttpClientService {
             } else if (responseCode >= 500) {
                 throw new HttpException(responseCode, "Server error - Please try again later");
             } else {
-                String errorMessage = "HTTP Error " + responseCode;
-                try {
-                    String errorBody = new String(connection.getErrorStream().readAllBytes(), StandardCharsets.UTF_8);
-                    errorMessage = errorBody;
-                } catch (Exception ignored) {
-                }
-                throw new HttpException(responseCode, errorMessage);
+                throw new HttpException(responseCode, readErrorBody(body, "HTTP Error " + responseCode));
             }
-            
-        } finally {
-            connection.disconnect();
         }
     }
     
+    /**
+     * Reads a response into a result; shared by the blocking and async variants of each verb
+     */
+    @FunctionalInterface
+    private interface ResponseReader<B, R> {
+        R read(HttpResponse<B> response) throws IOException, HttpException;
+    }
+    
     public static class HttpException extends Exception {
         private final int statusCode;
         
@@ -0,0 +1,254 @@
+package com.nhom.weatherdesktop.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Cache of GET response bodies together with their validators (ETag / Last-Modified)
+ * Entries live in an in-memory LRU map and are mirrored to disk so they survive restarts; the disk
+ * copy is held to the same number of entries, dropping the least recently used files.
+ * They are never served blindly: HttpClientService always revalidates with a conditional
+ * request and only uses the cached body when the server answers 304 Not Modified
+ */
+public class HttpResponseCache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(HttpResponseCache.class);
+    private static final String SUFFIX = ".cache";
+    private static final int PRUNE_INTERVAL = 32;
+    
+    private final Map<String, Entry> memory;
+    private final Path directory;
+    private final int maxEntries;
+    // Starts one short of the interval so the first write also prunes what earlier runs left behind
+    private final AtomicInteger writesSincePrune = new AtomicInteger(PRUNE_INTERVAL - 1);
+    
+    public HttpResponseCache(int maxEntries, Path directory) {
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.directory = directory;
+        this.maxEntries = maxEntries;
+    }
+    
+    /**
+     * Look up an entry, falling back to the disk copy when it is not in memory
+     */
+    public Entry get(String key) {
+        synchronized (memory) {
+            Entry entry = memory.get(key);
+            if (entry != null) {
+                return entry;
+            }
+        }
+        
+        Entry entry = readFromDisk(key);
+        if (entry != null) {
+            synchronized (memory) {
+                memory.put(key, entry);
+            }
+        }
+        return entry;
+    }
+    
+    public void put(String key, Entry entry) {
+        synchronized (memory) {
+            memory.put(key, entry);
+        }
+        writeToDisk(key, entry);
+    }
+    
+    /**
+     * Drop every entry (e.g. on logout so another user never sees cached data)
+     */
+    public void clear() {
+        synchronized (memory) {
+            memory.clear();
+        }
+        
+        if (directory == null || !Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    logger.debug("Failed to delete cache file {}: {}", file, e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            logger.warn("Failed to clear response cache directory: {}", e.getMessage());
+        }
+    }
+    
+    private Entry readFromDisk(String key) {
+        if (directory == null) {
+            return null;
+        }
+        
+        Path file = directory.resolve(fileName(key));
+        if (!Files.exists(file)) {
+            return null;
+        }
+        
+        try (InputStream input = Files.newInputStream(file);
+             DataInputStream data = new DataInputStream(input)) {
+            String storedKey = data.readUTF();
+            if (!storedKey.equals(key)) {
+                return null;
+            }
+            String etag = data.readUTF();
+            String lastModified = data.readUTF();
+            byte[] body = new byte[data.readInt()];
+            data.readFully(body);
+            // The modification time doubles as the last use, which pruning goes by
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+            return new Entry(etag.isEmpty() ? null : etag, lastModified.isEmpty() ? null : lastModified, body);
+        } catch (IOException e) {
+            logger.debug("Ignoring unreadable cache file {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+    
+    private void writeToDisk(String key, Entry entry) {
+        if (directory == null) {
+            return;
+        }
+        
+        try {
+            Files.createDirectories(directory);
+            Path file = directory.resolve(fileName(key));
+            Path tempFile = Files.createTempFile(directory, "entry", ".tmp");
+            
+            try (OutputStream output = Files.newOutputStream(tempFile);
+                 DataOutputStream data = new DataOutputStream(output)) {
+                data.writeUTF(key);
+                data.writeUTF(entry.etag() != null ? entry.etag() : "");
+                data.writeUTF(entry.lastModified() != null ? entry.lastModified() : "");
+                data.writeInt(entry.body().length);
+                data.write(entry.body());
+            }
+            
+            // Replace atomically so a crash never leaves a half-written entry behind
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.debug("Failed to persist cache entry: {}", e.getMessage());
+        }
+        
+        if (writesSincePrune.incrementAndGet() >= PRUNE_INTERVAL) {
+            writesSincePrune.set(0);
+            pruneDisk();
+        }
+    }
+    
+    /**
+     * Delete the least recently used files beyond maxEntries
+     */
+    private void pruneDisk() {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(file -> file.getFileName().toString().endsWith(SUFFIX)).toList();
+        } catch (IOException e) {
+            logger.debug("Failed to list response cache directory: {}", e.getMessage());
+            return;
+        }
+        if (files.size() <= maxEntries) {
+            return;
+        }
+        
+        Map<Path, FileTime> lastUsed = new HashMap<>();
+        for (Path file : files) {
+            try {
+                lastUsed.put(file, Files.getLastModifiedTime(file));
+            } catch (IOException e) {
+                lastUsed.put(file, FileTime.fromMillis(0));
+            }
+        }
+        List<Path> oldestFirst = new ArrayList<>(files);
+        oldestFirst.sort(Comparator.comparing(lastUsed::get));
+        
+        int excess = files.size() - maxEntries;
+        for (Path file : oldestFirst.subList(0, excess)) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.debug("Failed to delete cache file {}: {}", file, e.getMessage());
+            }
+        }
+        logger.debug("Pruned {} response cache files", excess);
+    }
+    
+    /**
+     * Build a cache key for a URL as seen by a given user (null for anonymous requests)
+     * The user is only kept as a digest so neither identities nor tokens are written to disk
+     */
+    public static String key(String url, String user) {
+        return url + "#" + (user != null ? sha256(user) : "anonymous");
+    }
+    
+    private static String fileName(String key) {
+        return sha256(key) + SUFFIX;
+    }
+    
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    /**
+     * A cached response body and its validators
+     */
+    public static final class Entry {
+        private final String etag;
+        private final String lastModified;
+        private final byte[] body;
+        
+        public Entry(String etag, String lastModified, byte[] body) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.body = body;
+        }
+        
+        public String etag() {
+            return etag;
+        }
+        
+        public String lastModified() {
+            return lastModified;
+        }
+        
+        public byte[] body() {
+            return body;
+        }
+    }
+}
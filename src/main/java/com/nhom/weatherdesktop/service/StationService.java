@@ -12,6 +12,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class StationService implements IStationService {
 
@@ -65,6 +66,26 @@ public class StationService implements IStationService {
         }
     }
 
+    @Override
+    public int streamMyStations(int page, int size, Consumer<StationResponse> onStation) {
+        try {
+            String endpoint = "/stations/user/me/stations?page=" + page + "&size=" + size;
+            logger.debug("Streaming endpoint: {}", endpoint);
+            
+            // API returns { "data": [ StationResponse, ... ] }
+            int count = httpClient.getEach(endpoint, "data", StationResponse.class, onStation, true);
+            logger.info("Successfully streamed {} stations", count);
+            return count;
+            
+        } catch (HttpClientService.HttpException e) {
+            logger.error("HTTP {} error while streaming stations: {}", e.getStatusCode(), e.getMessage(), e);
+            throw new RuntimeException("Failed to fetch stations: " + e.getMessage(), e);
+        } catch (IOException e) {
+            logger.error("Network error while streaming stations: {}", e.getMessage(), e);
+            throw new RuntimeException("Network error while fetching stations: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public StationResponse getStationById(Long id) {
         try {
@@ -0,0 +1,187 @@
+package com.nhom.weatherdesktop.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nhom.weatherdesktop.dto.request.RefreshTokenRequest;
+import com.nhom.weatherdesktop.dto.response.LoginResponse;
+import com.nhom.weatherdesktop.session.SessionContext;
+import com.nhom.weatherdesktop.util.AppConfig;
+import com.nhom.weatherdesktop.util.TaskExecutor;
+import com.nhom.weatherdesktop.util.TokenManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Renews the access token with the stored refresh token
+ * Concurrent callers (e.g. several requests failing with 401 at once) share a single refresh call,
+ * and a refresh is scheduled ahead of the token's JWT "exp" so it rarely expires in use
+ */
+public class TokenRefreshService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRefreshService.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static TokenRefreshService instance;
+
+    private final AppConfig config;
+    private final TokenManager tokenManager;
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+    private CompletableFuture<String> inFlight;
+    private Future<?> scheduledRefresh;
+
+    private TokenRefreshService() {
+        this.config = AppConfig.getInstance();
+        this.tokenManager = TokenManager.getInstance();
+    }
+
+    public static synchronized TokenRefreshService getInstance() {
+        if (instance == null) {
+            instance = new TokenRefreshService();
+        }
+        return instance;
+    }
+
+    /**
+     * Refresh the access token, joining the refresh already in progress if there is one
+     * @return future completed with the new Authorization header value
+     */
+    public synchronized CompletableFuture<String> refresh() {
+        if (inFlight != null) {
+            return inFlight;
+        }
+
+        String refreshToken = tokenManager.getRefreshToken();
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return CompletableFuture.failedFuture(new IllegalStateException("No refresh token available"));
+        }
+
+        CompletableFuture<String> result = new CompletableFuture<>();
+        inFlight = result;
+        logger.info("Refreshing access token...");
+
+        HttpClientService.getInstance()
+            .postAsync(config.getAuthRefreshEndpoint(), new RefreshTokenRequest(refreshToken), LoginResponse.class, false)
+            .whenComplete((response, error) -> {
+                synchronized (this) {
+                    if (inFlight == result) {
+                        inFlight = null;
+                    }
+                }
+
+                if (error != null || response == null || response.accessToken() == null) {
+                    logger.warn("Access token refresh failed: {}", error != null ? error.getMessage() : "empty response");
+                    result.completeExceptionally(error != null ? error : new IllegalStateException("Empty refresh response"));
+                    return;
+                }
+
+                // Servers that don't rotate refresh tokens may omit it; keep the current one then
+                tokenManager.saveTokens(response.accessToken(),
+                    response.refreshToken() != null ? response.refreshToken() : refreshToken);
+                SessionContext.setAccessToken(response.accessToken());
+                logger.info("Access token refreshed");
+
+                scheduleProactiveRefresh();
+                result.complete(tokenManager.getAuthorizationHeader());
+                notifyListeners(response.accessToken());
+            });
+
+        return result;
+    }
+
+    /**
+     * Schedule a refresh shortly before the current access token expires
+     * Tokens without a readable "exp" claim are only refreshed when a request gets a 401
+     */
+    public synchronized void scheduleProactiveRefresh() {
+        cancelScheduledRefresh();
+
+        Instant expiresAt = expiresAt(tokenManager.getAccessToken());
+        if (expiresAt == null) {
+            return;
+        }
+
+        Duration delay = Duration.between(Instant.now(), expiresAt)
+            .minusSeconds(config.getAuthRefreshSkewSeconds());
+        if (delay.isNegative()) {
+            delay = Duration.ZERO;
+        }
+
+        logger.debug("Access token expires at {}, refreshing in {}s", expiresAt, delay.toSeconds());
+        scheduledRefresh = TaskExecutor.getInstance().schedule("token-refresh", delay, () -> refresh()
+            .exceptionally(error -> null));
+    }
+
+    /**
+     * Stop the proactive refresh (logout)
+     */
+    public synchronized void cancelScheduledRefresh() {
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(true);
+            scheduledRefresh = null;
+        }
+    }
+
+    /**
+     * Listen for new access tokens (e.g. to reconnect the WebSocket with the fresh token)
+     */
+    public void addListener(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<String> listener) {
+        listeners.remove(listener);
+    }
+
+    private void notifyListeners(String accessToken) {
+        for (Consumer<String> listener : listeners) {
+            try {
+                listener.accept(accessToken);
+            } catch (Exception e) {
+                logger.error("Token listener failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Read the "exp" claim of a JWT without verifying it (the server does that)
+     */
+    static Instant expiresAt(String jwt) {
+        JsonNode exp = claim(jwt, "exp");
+        return exp != null && exp.canConvertToLong() ? Instant.ofEpochSecond(exp.asLong()) : null;
+    }
+
+    /**
+     * Read the "sub" claim of a JWT (the user it was issued to) without verifying it
+     */
+    static String subject(String jwt) {
+        JsonNode sub = claim(jwt, "sub");
+        return sub != null && sub.isValueNode() && !sub.asText().isEmpty() ? sub.asText() : null;
+    }
+
+    private static JsonNode claim(String jwt, String name) {
+        if (jwt == null) {
+            return null;
+        }
+
+        String[] parts = jwt.split("\\.");
+        if (parts.length < 2) {
+            return null;
+        }
+
+        try {
+            JsonNode claims = MAPPER.readTree(Base64.getUrlDecoder().decode(parts[1]));
+            return claims.get(name);
+        } catch (Exception e) {
+            logger.debug("Could not read token claim {}: {}", name, e.getMessage());
+            return null;
+        }
+    }
+}
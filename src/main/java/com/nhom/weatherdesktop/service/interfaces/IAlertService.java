@@ -4,6 +4,7 @@ import com.nhom.weatherdesktop.dto.response.AlertResponse;
 import com.nhom.weatherdesktop.dto.response.PageResponse;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface IAlertService {
 
@@ -12,6 +13,12 @@ public interface IAlertService {
      */
     PageResponse<AlertResponse> getMyAlerts(int page, int size);
 
+    /**
+     * Stream alerts for current user, delivering each one as soon as it is parsed
+     * @return number of alerts delivered
+     */
+    int streamMyAlerts(int page, int size, Consumer<AlertResponse> onAlert);
+
     /**
      * Get all alerts for current user (multiple pages if needed)
      */
@@ -5,6 +5,8 @@ import com.nhom.weatherdesktop.dto.request.UpdateStationRequest;
 import com.nhom.weatherdesktop.dto.response.PageResponse;
 import com.nhom.weatherdesktop.dto.response.StationResponse;
 
+import java.util.function.Consumer;
+
 public interface IStationService {
 
     /**
@@ -12,6 +14,12 @@ public interface IStationService {
      */
     PageResponse<StationResponse> getMyStations(int page, int size);
 
+    /**
+     * Stream user's stations, delivering each one as soon as it is parsed
+     * @return number of stations delivered
+     */
+    int streamMyStations(int page, int size, Consumer<StationResponse> onStation);
+
     /**
      * Get station by ID
      */
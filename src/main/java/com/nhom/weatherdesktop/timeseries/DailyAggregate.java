@@ -0,0 +1,145 @@
+package com.nhom.weatherdesktop.timeseries;
+
+import com.nhom.weatherdesktop.dto.response.DailyWeatherSummaryResponse;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Running min / max / sum / count of every metric of one station, per local day
+ * Updated with each stored reading, so a day's summary is always current without a rescan.
+ * Only the last retentionDays days are kept. Each day also tracks how well its readings cover it,
+ * since the app may not have been running all day
+ */
+final class DailyAggregate {
+    
+    private static final int METRICS = Metric.values().length;
+    // Longest stretch without a reading (including from midnight, and until now) for a day to count as whole
+    private static final long MAX_GAP_MILLIS = 30 * 60 * 1000L;
+    
+    private final ZoneId zone;
+    private final int retentionDays;
+    private final TreeMap<LocalDate, DayBucket> days = new TreeMap<>();
+    
+    DailyAggregate(ZoneId zone, int retentionDays) {
+        this.zone = zone;
+        this.retentionDays = Math.max(1, retentionDays);
+    }
+    
+    /**
+     * Add a reading
+     * @return the local day it was counted in, or null when it is older than the retention
+     */
+    LocalDate add(Reading reading) {
+        LocalDate day = dayOf(reading.recordAt());
+        if (!days.isEmpty() && day.isBefore(days.lastKey().minusDays(retentionDays - 1))) {
+            return null;
+        }
+        
+        days.computeIfAbsent(day, d -> new DayBucket()).add(reading);
+        LocalDate oldest = days.lastKey().minusDays(retentionDays - 1);
+        while (days.firstKey().isBefore(oldest)) {
+            days.pollFirstEntry();
+        }
+        return day;
+    }
+    
+    LocalDate dayOf(long epochMillis) {
+        return Instant.ofEpochMilli(epochMillis).atZone(zone).toLocalDate();
+    }
+    
+    /**
+     * Epoch millis of the local midnight starting the given day
+     */
+    long startOf(LocalDate day) {
+        return day.atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+    
+    LocalDailySummary summary(LocalDate day) {
+        DayBucket bucket = days.get(day);
+        return bucket != null ? toSummary(day, bucket) : null;
+    }
+    
+    /**
+     * Summaries of the days from the given one on, oldest first; days without readings are left out
+     */
+    List<LocalDailySummary> summaries(LocalDate from) {
+        List<LocalDailySummary> summaries = new ArrayList<>();
+        days.tailMap(from, true).forEach((day, bucket) -> summaries.add(toSummary(day, bucket)));
+        return summaries;
+    }
+    
+    private LocalDailySummary toSummary(LocalDate day, DayBucket bucket) {
+        long end = Math.min(System.currentTimeMillis(), startOf(day.plusDays(1)));
+        boolean wholeDay = bucket.first - startOf(day) <= MAX_GAP_MILLIS
+            && bucket.maxGap <= MAX_GAP_MILLIS
+            && end - bucket.last <= MAX_GAP_MILLIS;
+        return new LocalDailySummary(bucket.toResponse(day), wholeDay);
+    }
+    
+    /**
+     * Statistics of one day, indexed by Metric ordinal; NaN (missing) values are not counted
+     */
+    private static final class DayBucket {
+        final float[] min = new float[METRICS];
+        final float[] max = new float[METRICS];
+        final double[] sum = new double[METRICS];
+        final int[] count = new int[METRICS];
+        // Readings arrive in time order
+        long first = Long.MIN_VALUE;
+        long last = Long.MIN_VALUE;
+        long maxGap;
+        
+        void add(Reading reading) {
+            if (first == Long.MIN_VALUE) {
+                first = reading.recordAt();
+            } else {
+                maxGap = Math.max(maxGap, reading.recordAt() - last);
+            }
+            last = reading.recordAt();
+            for (Metric metric : Metric.values()) {
+                float value = metric.valueOf(reading);
+                if (Float.isNaN(value)) {
+                    continue;
+                }
+                int i = metric.ordinal();
+                if (count[i] == 0 || value < min[i]) {
+                    min[i] = value;
+                }
+                if (count[i] == 0 || value > max[i]) {
+                    max[i] = value;
+                }
+                sum[i] += value;
+                count[i]++;
+            }
+        }
+        
+        DailyWeatherSummaryResponse toResponse(LocalDate day) {
+            return new DailyWeatherSummaryResponse(
+                day.toString(),
+                min(Metric.TEMPERATURE), max(Metric.TEMPERATURE), avg(Metric.TEMPERATURE),
+                min(Metric.HUMIDITY), max(Metric.HUMIDITY), avg(Metric.HUMIDITY),
+                min(Metric.WIND_SPEED), max(Metric.WIND_SPEED), avg(Metric.WIND_SPEED),
+                min(Metric.DUST), max(Metric.DUST), avg(Metric.DUST),
+                count[Metric.RAINFALL.ordinal()] > 0 ? (float) sum[Metric.RAINFALL.ordinal()] : null
+            );
+        }
+        
+        private Float min(Metric metric) {
+            return count[metric.ordinal()] > 0 ? min[metric.ordinal()] : null;
+        }
+        
+        private Float max(Metric metric) {
+            return count[metric.ordinal()] > 0 ? max[metric.ordinal()] : null;
+        }
+        
+        private Float avg(Metric metric) {
+            int i = metric.ordinal();
+            return count[i] > 0 ? (float) (sum[i] / count[i]) : null;
+        }
+    }
+}
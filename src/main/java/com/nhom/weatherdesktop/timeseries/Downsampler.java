@@ -0,0 +1,140 @@
+package com.nhom.weatherdesktop.timeseries;
+
+import java.util.Arrays;
+
+/**
+ * Reduces a series to what a chart of a given pixel width can actually show
+ * Works on the primitive arrays only and allocates just the result, so it is cheap enough to
+ * rerun on every zoom; it is still meant for a background thread, not the JavaFX thread
+ */
+public final class Downsampler {
+    
+    public enum Mode {
+        /** Largest-Triangle-Three-Buckets: keeps the visual shape with about 2 points per pixel */
+        LTTB,
+        /** Min and max of each pixel-wide time bucket: never hides a spike, at most 2 points per pixel */
+        MIN_MAX
+    }
+    
+    private Downsampler() {
+    }
+    
+    /**
+     * Reduce a series to at most about 2 points per horizontal pixel; a series that already fits is returned as is
+     */
+    public static MetricSeries reduce(MetricSeries series, int pixels, Mode mode) {
+        return switch (mode) {
+            case LTTB -> lttb(series, 2 * pixels);
+            case MIN_MAX -> minMax(series, pixels);
+        };
+    }
+    
+    /**
+     * Largest-Triangle-Three-Buckets (Steinarsson): keep the first and last point, and from each
+     * of the threshold - 2 buckets in between the point forming the largest triangle with the
+     * previously kept point and the average of the next bucket
+     */
+    public static MetricSeries lttb(MetricSeries series, int threshold) {
+        int size = series.size();
+        if (threshold >= size || threshold < 3) {
+            return series;
+        }
+        
+        long[] x = series.timestamps();
+        float[] y = series.values();
+        long[] outX = new long[threshold];
+        float[] outY = new float[threshold];
+        double every = (double) (size - 2) / (threshold - 2);
+        
+        int kept = 0; // index of the last kept point
+        outX[0] = x[0];
+        outY[0] = y[0];
+        int count = 1;
+        
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            // Average of the next bucket (the last point for the last bucket)
+            int nextStart = (int) ((bucket + 1) * every) + 1;
+            int nextEnd = Math.min((int) ((bucket + 2) * every) + 1, size);
+            double avgX = 0;
+            double avgY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgX += x[i] - x[0];
+                avgY += y[i];
+            }
+            int nextCount = nextEnd - nextStart;
+            avgX /= nextCount;
+            avgY /= nextCount;
+            
+            // The point of this bucket with the largest triangle
+            int start = (int) (bucket * every) + 1;
+            int end = (int) ((bucket + 1) * every) + 1;
+            double keptX = x[kept] - x[0];
+            double keptY = y[kept];
+            double maxArea = -1;
+            int chosen = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((keptX - avgX) * (y[i] - keptY) - (keptX - (x[i] - x[0])) * (avgY - keptY));
+                if (area > maxArea) {
+                    maxArea = area;
+                    chosen = i;
+                }
+            }
+            
+            outX[count] = x[chosen];
+            outY[count] = y[chosen];
+            count++;
+            kept = chosen;
+        }
+        
+        outX[count] = x[size - 1];
+        outY[count] = y[size - 1];
+        return new MetricSeries(series.metric(), outX, outY);
+    }
+    
+    /**
+     * Split the time span into equal buckets (one per pixel) and keep the minimum and maximum
+     * of each, in time order
+     */
+    public static MetricSeries minMax(MetricSeries series, int buckets) {
+        int size = series.size();
+        if (buckets < 1 || size <= 2 * buckets) {
+            return series;
+        }
+        
+        long[] x = series.timestamps();
+        float[] y = series.values();
+        long[] outX = new long[2 * buckets];
+        float[] outY = new float[2 * buckets];
+        double span = Math.max(1, x[size - 1] - x[0] + 1);
+        int count = 0;
+        
+        int i = 0;
+        while (i < size) {
+            int bucket = (int) ((x[i] - x[0]) / span * buckets);
+            int min = i;
+            int max = i;
+            // Timestamps are increasing, so a bucket is a contiguous run
+            while (++i < size && (int) ((x[i] - x[0]) / span * buckets) == bucket) {
+                if (y[i] < y[min]) {
+                    min = i;
+                }
+                if (y[i] > y[max]) {
+                    max = i;
+                }
+            }
+            
+            int first = Math.min(min, max);
+            int second = Math.max(min, max);
+            outX[count] = x[first];
+            outY[count] = y[first];
+            count++;
+            if (second != first) {
+                outX[count] = x[second];
+                outY[count] = y[second];
+                count++;
+            }
+        }
+        
+        return new MetricSeries(series.metric(), Arrays.copyOf(outX, count), Arrays.copyOf(outY, count));
+    }
+}
@@ -0,0 +1,11 @@
+package com.nhom.weatherdesktop.timeseries;
+
+import com.nhom.weatherdesktop.dto.response.DailyWeatherSummaryResponse;
+
+/**
+ * A daily summary computed on this client from the stored readings
+ * @param wholeDay whether the readings cover the day from midnight (up to now for today) without a
+ *                 long gap; if not, the summary only reflects the part of the day the app was running
+ */
+public record LocalDailySummary(DailyWeatherSummaryResponse summary, boolean wholeDay) {
+}
@@ -0,0 +1,32 @@
+package com.nhom.weatherdesktop.timeseries;
+
+/**
+ * A measured value of a reading, with its byte offset inside a stored record
+ */
+public enum Metric {
+    TEMPERATURE(8),
+    HUMIDITY(12),
+    RAINFALL(16),
+    WIND_SPEED(20),
+    DUST(24);
+    
+    private final int offset;
+    
+    Metric(int offset) {
+        this.offset = offset;
+    }
+    
+    int offset() {
+        return offset;
+    }
+    
+    public float valueOf(Reading reading) {
+        return switch (this) {
+            case TEMPERATURE -> reading.temperature();
+            case HUMIDITY -> reading.humidity();
+            case RAINFALL -> reading.rainfall();
+            case WIND_SPEED -> reading.windSpeed();
+            case DUST -> reading.dust();
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package com.nhom.weatherdesktop.timeseries;
+
+/**
+ * One metric of a station over a time range as parallel primitive arrays, oldest first
+ * timestamps[i] (epoch millis) goes with values[i]; readings missing the metric are left out
+ */
+public record MetricSeries(Metric metric, long[] timestamps, float[] values) {
+    
+    public static MetricSeries empty(Metric metric) {
+        return new MetricSeries(metric, new long[0], new float[0]);
+    }
+    
+    public int size() {
+        return timestamps.length;
+    }
+    
+    public boolean isEmpty() {
+        return timestamps.length == 0;
+    }
+}
@@ -0,0 +1,41 @@
+package com.nhom.weatherdesktop.timeseries;
+
+import com.nhom.weatherdesktop.dto.response.WeatherDataResponse;
+
+import java.time.Instant;
+
+/**
+ * One stored weather reading; missing measurements are NaN
+ */
+public record Reading(
+        long recordAt,
+        float temperature,
+        float humidity,
+        float rainfall,
+        float windSpeed,
+        float dust
+) {
+    
+    /**
+     * Convert a live reading; one without a timestamp is stamped with the time it arrived
+     */
+    public static Reading of(WeatherDataResponse data) {
+        Instant recordAt = data.recordAt() != null ? data.recordAt() : Instant.now();
+        return new Reading(
+            recordAt.toEpochMilli(),
+            orNaN(data.temperature()),
+            orNaN(data.humidity()),
+            orNaN(data.rainfall()),
+            orNaN(data.windSpeed()),
+            orNaN(data.dust())
+        );
+    }
+    
+    public Instant instant() {
+        return Instant.ofEpochMilli(recordAt);
+    }
+    
+    private static float orNaN(Float value) {
+        return value != null ? value : Float.NaN;
+    }
+}
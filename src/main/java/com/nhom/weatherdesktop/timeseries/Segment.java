@@ -0,0 +1,373 @@
+package com.nhom.weatherdesktop.timeseries;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * One append-only segment file of a station's readings
+ * Layout: a 32-byte header (magic, version, record size, station id) followed by fixed-width
+ * 32-byte records: recordAt epoch millis, temperature, humidity, rainfall, wind speed, dust
+ * (floats) and a CRC32 of the preceding 28 bytes. Records are in strictly increasing time order,
+ * so record i lives at HEADER_SIZE + i * RECORD_SIZE and a torn tail is detected by its checksum.
+ * Reads find a time range by binary search; a sealed segment is read through a read-only memory
+ * mapping made once, the segment being written through positional reads of its channel
+ */
+final class Segment {
+    
+    private static final Logger logger = LoggerFactory.getLogger(Segment.class);
+    
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 32;
+    /** Largest record count that still fits an int-addressed mapping */
+    static final int MAX_RECORDS = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE;
+    private static final int PAYLOAD_SIZE = RECORD_SIZE - Integer.BYTES;
+    private static final int MAGIC = 0x57585453; // "WXTS"
+    private static final short VERSION = 1;
+    
+    private final Path path;
+    private FileChannel channel; // open only while the segment is being written
+    private int count;
+    private long firstTimestamp = Long.MIN_VALUE;
+    private long lastTimestamp = Long.MIN_VALUE;
+    private final ByteBuffer writeBuffer = ByteBuffer.allocate(RECORD_SIZE);
+    private final ByteBuffer timestampBuffer = ByteBuffer.allocate(Long.BYTES);
+    private final CRC32 crc = new CRC32();
+    private MappedByteBuffer mapped; // sealed segments only
+    
+    private Segment(Path path) {
+        this.path = path;
+    }
+    
+    /**
+     * Create a new, empty segment to append to
+     */
+    static Segment create(Path path, long stationId) throws IOException {
+        Segment segment = new Segment(path);
+        segment.channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) RECORD_SIZE).putLong(stationId);
+        header.clear();
+        segment.channel.write(header, 0);
+        return segment;
+    }
+    
+    /**
+     * Open an existing segment
+     * @param tail the newest segment of its station: kept open for appending, and recovered first,
+     *             since it is the only one a crash can leave half-written
+     * @return null when the file is not a segment
+     */
+    static Segment open(Path path, boolean tail) throws IOException {
+        Segment segment = new Segment(path);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        
+        try {
+            if (!segment.readHeader(channel)) {
+                channel.close();
+                return null;
+            }
+            
+            long records = (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+            if (tail) {
+                records = segment.recover(channel, records);
+            }
+            segment.count = (int) records;
+            
+            if (records > 0) {
+                Reading first = decode(readRecord(channel, 0), new CRC32());
+                Reading last = decode(readRecord(channel, records - 1), new CRC32());
+                segment.firstTimestamp = first != null ? first.recordAt() : Long.MIN_VALUE;
+                segment.lastTimestamp = last != null ? last.recordAt() : Long.MIN_VALUE;
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        
+        if (tail) {
+            segment.channel = channel;
+        } else {
+            channel.close();
+        }
+        return segment;
+    }
+    
+    private boolean readHeader(FileChannel channel) throws IOException {
+        if (channel.size() < HEADER_SIZE) {
+            return false;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        header.flip();
+        return header.getInt() == MAGIC && header.getShort() == VERSION && header.getShort() == RECORD_SIZE;
+    }
+    
+    /**
+     * Drop a partially written tail: a trailing fragment shorter than a record, and trailing
+     * records whose checksum does not match (written only in part before a crash)
+     */
+    private long recover(FileChannel channel, long records) throws IOException {
+        long valid = records;
+        while (valid > 0 && decode(readRecord(channel, valid - 1), crc) == null) {
+            valid--;
+        }
+        
+        long expectedSize = HEADER_SIZE + valid * RECORD_SIZE;
+        if (channel.size() != expectedSize) {
+            logger.warn("Recovered {}: dropped {} bytes of a partially written tail", path.getFileName(), channel.size() - expectedSize);
+            channel.truncate(expectedSize);
+            channel.force(true);
+        }
+        return valid;
+    }
+    
+    /**
+     * Append a reading; the caller guarantees it is newer than the last one
+     */
+    void append(Reading reading) throws IOException {
+        writeBuffer.clear();
+        writeBuffer.putLong(reading.recordAt())
+            .putFloat(reading.temperature())
+            .putFloat(reading.humidity())
+            .putFloat(reading.rainfall())
+            .putFloat(reading.windSpeed())
+            .putFloat(reading.dust());
+        crc.reset();
+        crc.update(writeBuffer.array(), 0, PAYLOAD_SIZE);
+        writeBuffer.putInt((int) crc.getValue());
+        writeBuffer.flip();
+        
+        long position = offset(count);
+        while (writeBuffer.hasRemaining()) {
+            position += channel.write(writeBuffer, position);
+        }
+        
+        if (count == 0) {
+            firstTimestamp = reading.recordAt();
+        }
+        lastTimestamp = reading.recordAt();
+        count++;
+    }
+    
+    /**
+     * Readings with from <= recordAt < to, in time order
+     */
+    List<Reading> read(long from, long to) throws IOException {
+        if (!overlaps(from, to)) {
+            return List.of();
+        }
+        
+        int start = indexOf(from);
+        int end = indexOf(to);
+        ByteBuffer records = records(start, end);
+        List<Reading> readings = new ArrayList<>(end - start);
+        CRC32 checksum = new CRC32();
+        for (int i = 0; i < end - start; i++) {
+            Reading reading = decode(records.slice(i * RECORD_SIZE, RECORD_SIZE), checksum);
+            if (reading != null) {
+                readings.add(reading);
+            }
+        }
+        return readings;
+    }
+    
+    /**
+     * Number of records with from <= recordAt < to
+     */
+    int count(long from, long to) throws IOException {
+        if (!overlaps(from, to)) {
+            return 0;
+        }
+        return indexOf(to) - indexOf(from);
+    }
+    
+    /**
+     * Copy one metric of the records with from <= recordAt < to into the arrays, starting at
+     * position size. Missing (NaN) values are skipped; records are not checksummed again, a
+     * torn write can only be at the tail and is cut off on recovery
+     * @return the new size
+     */
+    int readMetric(Metric metric, long from, long to, long[] timestamps, float[] values, int size) throws IOException {
+        if (!overlaps(from, to)) {
+            return size;
+        }
+        
+        int start = indexOf(from);
+        int end = indexOf(to);
+        ByteBuffer records = records(start, end);
+        for (int i = 0; i < end - start; i++) {
+            int offset = i * RECORD_SIZE;
+            float value = records.getFloat(offset + metric.offset());
+            if (!Float.isNaN(value)) {
+                timestamps[size] = records.getLong(offset);
+                values[size] = value;
+                size++;
+            }
+        }
+        return size;
+    }
+    
+    /**
+     * Timestamp of record index (0 <= index < count)
+     */
+    long timestampAt(int index) throws IOException {
+        if (channel == null) {
+            return map().getLong(offset(index));
+        }
+        timestampBuffer.clear();
+        readFully(timestampBuffer, offset(index));
+        return timestampBuffer.getLong(0);
+    }
+    
+    private boolean overlaps(long from, long to) {
+        return count > 0 && from < to && from <= lastTimestamp && to > firstTimestamp;
+    }
+    
+    /**
+     * Index of the first record with recordAt >= timestamp (count when there is none),
+     * by binary search over the stored timestamps
+     */
+    private int indexOf(long timestamp) throws IOException {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestampAt(mid) < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * Records start (inclusive) to end (exclusive), record start at index 0; absolute reads only.
+     * The segment being written is read from its channel: a mapping of it would be stale after the
+     * next append, and every remap would leave another mapping for the GC to release
+     */
+    private ByteBuffer records(int start, int end) throws IOException {
+        if (channel == null) {
+            return map().slice(offset(start), (end - start) * RECORD_SIZE);
+        }
+        ByteBuffer records = ByteBuffer.allocate((end - start) * RECORD_SIZE);
+        readFully(records, offset(start));
+        return records;
+    }
+    
+    /**
+     * The sealed file mapped read-only up to its last record, once; it no longer grows
+     */
+    private ByteBuffer map() throws IOException {
+        if (mapped == null) {
+            try (FileChannel reader = FileChannel.open(path, StandardOpenOption.READ)) {
+                mapped = reader.map(FileChannel.MapMode.READ_ONLY, 0, offset(count));
+            }
+        }
+        return mapped;
+    }
+    
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of " + path.getFileName());
+            }
+        }
+    }
+    
+    private static int offset(int index) {
+        return HEADER_SIZE + index * RECORD_SIZE;
+    }
+    
+    /**
+     * Flush to disk and stop writing (the segment is full, or the store is closing)
+     */
+    void seal() throws IOException {
+        if (channel != null) {
+            channel.force(true);
+            channel.close();
+            channel = null;
+        }
+    }
+    
+    /**
+     * Remove the file (the segment has expired); the mapping is dropped first, though on Windows
+     * the file can only go once the GC has released it
+     */
+    void delete() throws IOException {
+        seal();
+        mapped = null;
+        Files.deleteIfExists(path);
+    }
+    
+    private static ByteBuffer readRecord(FileChannel channel, long index) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        long position = HEADER_SIZE + index * RECORD_SIZE;
+        while (record.hasRemaining()) {
+            int read = channel.read(record, position + record.position());
+            if (read < 0) {
+                break;
+            }
+        }
+        record.flip();
+        return record;
+    }
+    
+    /**
+     * Decode one record, or null when it is short or its checksum does not match
+     */
+    static Reading decode(ByteBuffer record, CRC32 checksum) {
+        if (record.remaining() < RECORD_SIZE) {
+            return null;
+        }
+        
+        int start = record.position();
+        checksum.reset();
+        checksum.update(record.slice(start, PAYLOAD_SIZE));
+        if ((int) checksum.getValue() != record.getInt(start + PAYLOAD_SIZE)) {
+            return null;
+        }
+        
+        return new Reading(
+            record.getLong(start),
+            record.getFloat(start + 8),
+            record.getFloat(start + 12),
+            record.getFloat(start + 16),
+            record.getFloat(start + 20),
+            record.getFloat(start + 24)
+        );
+    }
+    
+    Path getPath() {
+        return path;
+    }
+    
+    int getCount() {
+        return count;
+    }
+    
+    long getFirstTimestamp() {
+        return firstTimestamp;
+    }
+    
+    long getLastTimestamp() {
+        return lastTimestamp;
+    }
+    
+    boolean isWritable() {
+        return channel != null;
+    }
+}
@@ -0,0 +1,273 @@
+package com.nhom.weatherdesktop.timeseries;
+
+import com.nhom.weatherdesktop.util.TimeUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The segments of one station, oldest first, under {@code <store>/<stationId>/}
+ * Segment files are named after their first timestamp; the list of segments with their
+ * first/last timestamps and record counts is the in-memory index used to skip whole files
+ * on a query. Only the last segment is open for writing. Per-day summaries of the last days are
+ * kept up to date with every append (seeded from the files on first use).
+ * Segments older than the retention period are deleted, and a series left unused for a while
+ * releases its files (closing the tail) until it is used again
+ */
+final class StationSeries {
+    
+    private static final Logger logger = LoggerFactory.getLogger(StationSeries.class);
+    private static final String SUFFIX = ".seg";
+    
+    private final long stationId;
+    private final Path directory;
+    private final int maxRecordsPerSegment;
+    private final List<Segment> segments = new ArrayList<>();
+    private final int summaryDays;
+    private final long retentionMillis;
+    private DailyAggregate daily;
+    private Reading latest;
+    private boolean loaded;
+    private long lastUsed;
+    
+    /**
+     * @param retentionDays how long readings are kept, 0 for ever
+     */
+    StationSeries(long stationId, Path directory, int maxRecordsPerSegment, int summaryDays, int retentionDays) {
+        this.stationId = stationId;
+        this.directory = directory;
+        this.maxRecordsPerSegment = Math.max(1, Math.min(maxRecordsPerSegment, Segment.MAX_RECORDS));
+        this.summaryDays = Math.max(1, summaryDays);
+        this.retentionMillis = Math.max(0, retentionDays) * 86_400_000L;
+        this.daily = new DailyAggregate(TimeUtil.VIETNAM_ZONE, this.summaryDays);
+    }
+    
+    /**
+     * Append a reading; one not newer than the last stored reading is ignored (duplicate
+     * delivery after a reconnect, or a late message)
+     * @return whether it was stored
+     */
+    synchronized boolean append(Reading reading) throws IOException {
+        load();
+        if (latest != null && reading.recordAt() <= latest.recordAt()) {
+            return false;
+        }
+        
+        Segment tail = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (tail == null || !tail.isWritable() || tail.getCount() >= maxRecordsPerSegment) {
+            if (tail != null) {
+                tail.seal();
+            }
+            Files.createDirectories(directory);
+            tail = Segment.create(directory.resolve(fileName(reading.recordAt())), stationId);
+            segments.add(tail);
+            deleteExpired();
+        }
+        
+        tail.append(reading);
+        latest = reading;
+        daily.add(reading);
+        return true;
+    }
+    
+    synchronized Reading latest() throws IOException {
+        load();
+        return latest;
+    }
+    
+    /**
+     * Readings with from <= recordAt < to, in time order
+     */
+    synchronized List<Reading> query(long from, long to) throws IOException {
+        load();
+        List<Reading> readings = new ArrayList<>();
+        for (Segment segment : segments) {
+            if (segment.getCount() == 0 || segment.getLastTimestamp() < from) {
+                continue;
+            }
+            if (segment.getFirstTimestamp() >= to) {
+                break;
+            }
+            readings.addAll(segment.read(from, to));
+        }
+        return readings;
+    }
+    
+    /**
+     * One metric with from <= recordAt < to as primitive arrays: the overlapping segments are
+     * sized first, so the arrays are allocated once and filled straight from the mapped files
+     */
+    synchronized MetricSeries query(Metric metric, long from, long to) throws IOException {
+        load();
+        int total = 0;
+        for (Segment segment : segments) {
+            total += segment.count(from, to);
+        }
+        if (total == 0) {
+            return MetricSeries.empty(metric);
+        }
+        
+        long[] timestamps = new long[total];
+        float[] values = new float[total];
+        int size = 0;
+        for (Segment segment : segments) {
+            size = segment.readMetric(metric, from, to, timestamps, values, size);
+        }
+        
+        if (size < total) {
+            timestamps = Arrays.copyOf(timestamps, size);
+            values = Arrays.copyOf(values, size);
+        }
+        return new MetricSeries(metric, timestamps, values);
+    }
+    
+    /**
+     * Start of the unbroken run of readings leading up to now: the earliest time from which on no two
+     * consecutive readings (nor the last one and now) are more than maxGap apart, but not before from
+     * @return the start, or null when the newest reading is already older than maxGap
+     */
+    synchronized Long coveredSince(long from, long maxGap, long now) throws IOException {
+        load();
+        long next = now;
+        for (int s = segments.size() - 1; s >= 0; s--) {
+            Segment segment = segments.get(s);
+            for (int i = segment.getCount() - 1; i >= 0; i--) {
+                long timestamp = segment.timestampAt(i);
+                if (next - timestamp > maxGap) {
+                    return next == now ? null : next;
+                }
+                if (timestamp <= from) {
+                    return from;
+                }
+                next = timestamp;
+            }
+        }
+        return next == now ? null : next;
+    }
+    
+    /**
+     * Summaries of the local days from the given one on, oldest first
+     */
+    synchronized List<LocalDailySummary> dailySummaries(LocalDate from) throws IOException {
+        load();
+        return daily.summaries(from);
+    }
+    
+    /**
+     * Summary of the local day containing the given time, or null when it has no readings
+     */
+    synchronized LocalDailySummary dailySummary(long epochMillis) throws IOException {
+        load();
+        return daily.summary(daily.dayOf(epochMillis));
+    }
+    
+    synchronized void close() {
+        for (Segment segment : segments) {
+            try {
+                segment.seal();
+            } catch (IOException e) {
+                logger.warn("Failed to close {}: {}", segment.getPath(), e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Periodic housekeeping: delete expired segments, and release the files of a series not used
+     * since the given time; it is loaded again on its next use
+     */
+    synchronized void maintain(long idleSince) {
+        if (!loaded) {
+            return;
+        }
+        deleteExpired();
+        if (lastUsed < idleSince) {
+            close();
+            segments.clear();
+            latest = null;
+            daily = new DailyAggregate(TimeUtil.VIETNAM_ZONE, summaryDays);
+            loaded = false;
+            logger.debug("Released idle history of station {}", stationId);
+        }
+    }
+    
+    /**
+     * Delete the segments whose readings are all older than the retention period; the newest
+     * segment is kept even then, it is the one appended to
+     */
+    private void deleteExpired() {
+        if (retentionMillis == 0) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        while (segments.size() > 1 && segments.get(0).getLastTimestamp() < cutoff) {
+            Segment expired = segments.get(0);
+            try {
+                expired.delete();
+            } catch (IOException e) {
+                logger.warn("Failed to delete expired {}: {}", expired.getPath(), e.getMessage());
+                return;
+            }
+            segments.remove(0);
+            logger.debug("Deleted expired {}", expired.getPath());
+        }
+    }
+    
+    /**
+     * Open the segments on first use; the newest one is recovered and reused for appending
+     */
+    private void load() throws IOException {
+        lastUsed = System.currentTimeMillis();
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        files.sort(Comparator.comparing(path -> path.getFileName().toString()));
+        
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i);
+            Segment segment = Segment.open(file, i == files.size() - 1);
+            if (segment == null) {
+                logger.warn("Skipping {}: not a segment file", file);
+                continue;
+            }
+            segments.add(segment);
+        }
+        deleteExpired();
+        
+        for (int i = segments.size() - 1; i >= 0 && latest == null; i--) {
+            Segment segment = segments.get(i);
+            if (segment.getCount() > 0) {
+                List<Reading> last = segment.read(segment.getLastTimestamp(), Long.MAX_VALUE);
+                latest = last.isEmpty() ? null : last.get(last.size() - 1);
+            }
+        }
+        
+        // Rebuild the running daily summaries from what is already on disk
+        long summaryStart = daily.startOf(LocalDate.now(TimeUtil.VIETNAM_ZONE).minusDays(summaryDays - 1));
+        for (Segment segment : segments) {
+            segment.read(summaryStart, Long.MAX_VALUE).forEach(daily::add);
+        }
+        logger.debug("Loaded {} segments for station {}", segments.size(), stationId);
+    }
+    
+    private static String fileName(long firstTimestamp) {
+        return String.format("%019d%s", firstTimestamp, SUFFIX);
+    }
+}
@@ -0,0 +1,277 @@
+package com.nhom.weatherdesktop.timeseries;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nhom.weatherdesktop.dto.response.WeatherDataResponse;
+import com.nhom.weatherdesktop.util.AppConfig;
+import com.nhom.weatherdesktop.util.TimeUtil;
+import com.nhom.weatherdesktop.websocket.StompClient;
+import com.nhom.weatherdesktop.websocket.StompFrame;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.regex.Pattern;
+
+/**
+ * Embedded on-disk history of the weather readings received over the WebSocket
+ * Readings are kept per station in append-only segment files. Appends are handed to a single
+ * writer thread so the UI and socket threads never wait on disk; reads go straight to the files.
+ * Readings are taken from the WebSocket before the dispatcher and the UI coalesce them, so every
+ * one is stored whether or not a screen shows it. The writer also expires old segments and
+ * releases the files of stations no longer followed.
+ * Daily summaries of the most recent local days are computed here from the live stream, older
+ * days still come from the backend
+ */
+public class TimeSeriesStore {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TimeSeriesStore.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper().findAndRegisterModules();
+    private static final Pattern WEATHER_DESTINATION = Pattern.compile("/topic/stations/\\d+/weather");
+    private static final long MAINTENANCE_INTERVAL_SECONDS = 60;
+    private static TimeSeriesStore instance;
+    
+    private final Path directory;
+    private final int maxRecordsPerSegment;
+    private final int summaryDays;
+    private final int retentionDays;
+    private final long idleMillis;
+    private final Map<Long, StationSeries> series = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService writer;
+    private final List<BiConsumer<Long, Reading>> readingListeners = new CopyOnWriteArrayList<>();
+    private final List<BiConsumer<Long, LocalDailySummary>> summaryListeners = new CopyOnWriteArrayList<>();
+    
+    private TimeSeriesStore() {
+        AppConfig config = AppConfig.getInstance();
+        this.directory = config.getHistoryDirectory();
+        this.maxRecordsPerSegment = config.getHistorySegmentMaxRecords();
+        this.summaryDays = config.getHistorySummaryLocalDays();
+        this.retentionDays = config.getHistoryRetentionDays();
+        this.idleMillis = TimeUnit.SECONDS.toMillis(config.getHistoryIdleCloseSeconds());
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "timeseries-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::maintain, MAINTENANCE_INTERVAL_SECONDS, MAINTENANCE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+    
+    public static synchronized TimeSeriesStore getInstance() {
+        if (instance == null) {
+            instance = new TimeSeriesStore();
+        }
+        return instance;
+    }
+    
+    /**
+     * Record every reading the client receives: weather MESSAGE frames are tapped on the socket
+     * thread and parsed on the writer thread
+     */
+    public void attach(StompClient client) {
+        client.addMessageTap(destination -> WEATHER_DESTINATION.matcher(destination).matches(), this::append);
+    }
+    
+    /**
+     * Store the reading carried by a weather MESSAGE frame in the background; safe to call from any thread
+     */
+    public void append(StompFrame frame) {
+        try {
+            writer.execute(() -> {
+                WeatherDataResponse data;
+                try {
+                    data = frame.readBody(MAPPER, WeatherDataResponse.class);
+                } catch (IOException e) {
+                    logger.debug("Ignoring unreadable reading from {}: {}", frame.getHeader("destination"), e.getMessage());
+                    return;
+                }
+                store(data);
+            });
+        } catch (RejectedExecutionException e) {
+            logger.debug("Store closed, reading from {} not stored", frame.getHeader("destination"));
+        }
+    }
+    
+    private void store(WeatherDataResponse data) {
+        if (data == null || data.stationId() == null) {
+            return;
+        }
+        Reading reading = Reading.of(data);
+        try {
+            StationSeries stationSeries = seriesOf(data.stationId());
+            if (stationSeries.append(reading)) {
+                notifyListeners(readingListeners, data.stationId(), reading);
+                if (!summaryListeners.isEmpty()) {
+                    notifyListeners(summaryListeners, data.stationId(), stationSeries.dailySummary(reading.recordAt()));
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Failed to store reading of station {}: {}", data.stationId(), e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Expire old segments and release the files of stations not used lately (writer thread)
+     */
+    private void maintain() {
+        long idleSince = System.currentTimeMillis() - idleMillis;
+        for (StationSeries stationSeries : series.values()) {
+            try {
+                stationSeries.maintain(idleSince);
+            } catch (RuntimeException e) {
+                logger.warn("History maintenance failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+    
+    /**
+     * Most recent stored reading of a station; blocking, call off the JavaFX thread
+     */
+    public Optional<Reading> latest(Long stationId) {
+        try {
+            return Optional.ofNullable(seriesOf(stationId).latest());
+        } catch (IOException e) {
+            logger.error("Failed to read history of station {}: {}", stationId, e.getMessage(), e);
+            return Optional.empty();
+        }
+    }
+    
+    /**
+     * Stored readings with from <= recordAt < to, oldest first; blocking, call off the JavaFX thread
+     */
+    public List<Reading> query(Long stationId, Instant from, Instant to) {
+        try {
+            return seriesOf(stationId).query(from.toEpochMilli(), to.toEpochMilli());
+        } catch (IOException e) {
+            logger.error("Failed to read history of station {}: {}", stationId, e.getMessage(), e);
+            return List.of();
+        }
+    }
+    
+    /**
+     * One metric of a station with from <= recordAt < to, as primitive arrays for charting;
+     * blocking, call off the JavaFX thread
+     */
+    public MetricSeries query(Long stationId, Metric metric, Instant from, Instant to) {
+        try {
+            return seriesOf(stationId).query(metric, from.toEpochMilli(), to.toEpochMilli());
+        } catch (IOException e) {
+            logger.error("Failed to read history of station {}: {}", stationId, e.getMessage(), e);
+            return MetricSeries.empty(metric);
+        }
+    }
+    
+    /**
+     * Like query(stationId, metric, from, to), reduced for a chart the given number of pixels
+     * wide (at most about 2 points per pixel); blocking, call off the JavaFX thread
+     */
+    public MetricSeries query(Long stationId, Metric metric, Instant from, Instant to, int pixels, Downsampler.Mode mode) {
+        return Downsampler.reduce(query(stationId, metric, from, to), pixels, mode);
+    }
+    
+    /**
+     * Since when the stored readings of a station cover the time up to now without a gap longer
+     * than maxGap (but at the earliest from); empty when the newest reading is older than that.
+     * Blocking, call off the JavaFX thread
+     */
+    public Optional<Instant> coveredSince(Long stationId, Instant from, Duration maxGap) {
+        try {
+            Long start = seriesOf(stationId).coveredSince(from.toEpochMilli(), maxGap.toMillis(), System.currentTimeMillis());
+            return Optional.ofNullable(start).map(Instant::ofEpochMilli);
+        } catch (IOException e) {
+            logger.error("Failed to read history of station {}: {}", stationId, e.getMessage(), e);
+            return Optional.empty();
+        }
+    }
+    
+    /**
+     * Notified on the writer thread with each newly stored reading
+     */
+    public void addReadingListener(BiConsumer<Long, Reading> listener) {
+        readingListeners.add(listener);
+    }
+    
+    public void removeReadingListener(BiConsumer<Long, Reading> listener) {
+        readingListeners.remove(listener);
+    }
+    
+    // ========== Daily summaries ==========
+    
+    /**
+     * First local day whose summary is computed on this client; earlier days come from the backend
+     */
+    public LocalDate localSummaryStart() {
+        return LocalDate.now(TimeUtil.VIETNAM_ZONE).minusDays(summaryDays - 1);
+    }
+    
+    /**
+     * Summaries of the local days since localSummaryStart() that have readings, oldest first,
+     * in the backend's daily-summary shape and telling whether they cover the whole day;
+     * blocking, call off the JavaFX thread
+     */
+    public List<LocalDailySummary> dailySummaries(Long stationId) {
+        try {
+            return seriesOf(stationId).dailySummaries(localSummaryStart());
+        } catch (IOException e) {
+            logger.error("Failed to read history of station {}: {}", stationId, e.getMessage(), e);
+            return List.of();
+        }
+    }
+    
+    /**
+     * Notified on the writer thread with the updated summary of the day of each stored reading
+     */
+    public void addDailySummaryListener(BiConsumer<Long, LocalDailySummary> listener) {
+        summaryListeners.add(listener);
+    }
+    
+    public void removeDailySummaryListener(BiConsumer<Long, LocalDailySummary> listener) {
+        summaryListeners.remove(listener);
+    }
+    
+    private static <T> void notifyListeners(List<BiConsumer<Long, T>> listeners, Long stationId, T value) {
+        if (value == null) {
+            return;
+        }
+        for (BiConsumer<Long, T> listener : listeners) {
+            try {
+                listener.accept(stationId, value);
+            } catch (Exception e) {
+                logger.error("History listener failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+    
+    /**
+     * Write out pending readings and close the files (application exit)
+     */
+    public void close() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warn("History writer did not finish in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        series.values().forEach(StationSeries::close);
+        logger.info("History store closed");
+    }
+    
+    private StationSeries seriesOf(Long stationId) {
+        return series.computeIfAbsent(stationId,
+            id -> new StationSeries(id, directory.resolve(String.valueOf(id)), maxRecordsPerSegment, summaryDays, retentionDays));
+    }
+}
@@ -3,7 +3,7 @@ package com.nhom.weatherdesktop.util;
 import com.nhom.weatherdesktop.controller.AlertNotificationDialogController;
 import com.nhom.weatherdesktop.dto.response.AlertResponse;
 import com.nhom.weatherdesktop.dto.response.StationResponse;
-import com.nhom.weatherdesktop.service.StationService;
+import com.nhom.weatherdesktop.repository.StationRepository;
 import com.nhom.weatherdesktop.session.SessionContext;
 import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
@@ -26,13 +26,13 @@ public class AlertNotificationManager {
     
     private boolean isDialogShowing = false;
     private String currentScreen = "My Station"; // Default
-    private final StationService stationService;
+    private final StationRepository stationRepository;
     private Runnable onDisableCallback;
     private Runnable onEnableCallback;
     private Runnable onUIUpdateCallback;
     
     private AlertNotificationManager() {
-        this.stationService = new StationService();
+        this.stationRepository = StationRepository.getInstance();
     }
     
     public static AlertNotificationManager getInstance() {
@@ -138,11 +138,8 @@ public class AlertNotificationManager {
     
     private String getStationName(Long stationId) {
         try {
-            // Get stations and find the one with matching ID
-            var response = stationService.getMyStations(0, 100);
-            return response.content().stream()
-                .filter(s -> s.id().equals(stationId))
-                .findFirst()
+            // Cached lookup by ID - only hits the backend when the cache is cold or stale
+            return stationRepository.findById(stationId)
                 .map(StationResponse::name)
                 .orElse("Station #" + stationId);
         } catch (Exception e) {
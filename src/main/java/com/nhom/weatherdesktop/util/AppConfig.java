@@ -5,6 +5,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.Properties;
 
 /**
@@ -49,10 +50,138 @@ public class AppConfig {
         return Integer.parseInt(properties.getProperty("api.timeout.seconds", "10"));
     }
     
+    public int getHttpPoolSize() {
+        return Integer.parseInt(properties.getProperty("api.http.pool.size", "20"));
+    }
+    
+    public int getHttpIdleTimeout() {
+        return Integer.parseInt(properties.getProperty("api.http.idle.timeout.seconds", "60"));
+    }
+    
+    public int getHttpAsyncPoolSize() {
+        return Integer.parseInt(properties.getProperty("api.http.async.pool.size", "4"));
+    }
+    
+    public boolean isHttpCompressionEnabled() {
+        return Boolean.parseBoolean(properties.getProperty("api.http.compression.enabled", "true"));
+    }
+    
+    public int getHttpRequestCompressionThreshold() {
+        return Integer.parseInt(properties.getProperty("api.http.request.compression.threshold.bytes", "0"));
+    }
+    
+    public int getHttpRetryMaxAttempts() {
+        return Integer.parseInt(properties.getProperty("api.http.retry.max.attempts", "3"));
+    }
+    
+    public long getHttpRetryBaseDelayMillis() {
+        return Long.parseLong(properties.getProperty("api.http.retry.base.delay.ms", "200"));
+    }
+    
+    public long getHttpRetryMaxDelayMillis() {
+        return Long.parseLong(properties.getProperty("api.http.retry.max.delay.ms", "5000"));
+    }
+    
+    public int getHttpCircuitFailureThreshold() {
+        return Integer.parseInt(properties.getProperty("api.http.circuit.failure.threshold", "5"));
+    }
+    
+    public int getHttpCircuitOpenSeconds() {
+        return Integer.parseInt(properties.getProperty("api.http.circuit.open.seconds", "30"));
+    }
+    
+    public boolean isHttpCacheEnabled() {
+        return Boolean.parseBoolean(properties.getProperty("api.http.cache.enabled", "true"));
+    }
+    
+    public int getHttpCacheMaxEntries() {
+        return Integer.parseInt(properties.getProperty("api.http.cache.max.entries", "200"));
+    }
+    
+    public Path getHttpCacheDirectory() {
+        String directory = properties.getProperty("api.http.cache.dir");
+        if (directory == null || directory.isBlank()) {
+            return Path.of(System.getProperty("user.home"), ".weather-desktop", "http-cache");
+        }
+        return Path.of(directory);
+    }
+    
+    public Path getHistoryDirectory() {
+        String directory = properties.getProperty("history.store.dir");
+        if (directory == null || directory.isBlank()) {
+            return Path.of(System.getProperty("user.home"), ".weather-desktop", "history");
+        }
+        return Path.of(directory);
+    }
+    
+    public int getHistorySegmentMaxRecords() {
+        return Integer.parseInt(properties.getProperty("history.segment.max.records", "32768"));
+    }
+    
+    public int getHistoryRetentionDays() {
+        return Integer.parseInt(properties.getProperty("history.retention.days", "90"));
+    }
+    
+    public int getHistoryIdleCloseSeconds() {
+        return Integer.parseInt(properties.getProperty("history.idle.close.seconds", "300"));
+    }
+    
+    public int getHistorySummaryLocalDays() {
+        return Integer.parseInt(properties.getProperty("history.summary.local.days", "1"));
+    }
+    
+    public int getStationCacheTtl() {
+        return Integer.parseInt(properties.getProperty("stations.cache.ttl.seconds", "60"));
+    }
+    
+    public String getAuthRefreshEndpoint() {
+        return properties.getProperty("api.auth.refresh.endpoint", "/auth/refresh");
+    }
+    
+    public int getAuthRefreshSkewSeconds() {
+        return Integer.parseInt(properties.getProperty("api.auth.refresh.skew.seconds", "60"));
+    }
+    
     public String getWebSocketUrl() {
         return properties.getProperty("websocket.url", "ws://localhost:8080/ws");
     }
     
+    public long getWebSocketHeartbeatOutgoing() {
+        return Long.parseLong(properties.getProperty("websocket.heartbeat.outgoing.ms", "10000"));
+    }
+    
+    public long getWebSocketHeartbeatIncoming() {
+        return Long.parseLong(properties.getProperty("websocket.heartbeat.incoming.ms", "10000"));
+    }
+    
+    public int getWebSocketHeartbeatMissedLimit() {
+        return Integer.parseInt(properties.getProperty("websocket.heartbeat.missed.limit", "2"));
+    }
+    
+    public long getWebSocketReconnectBaseDelay() {
+        return Long.parseLong(properties.getProperty("websocket.reconnect.base.delay.ms", "1000"));
+    }
+    
+    public long getWebSocketReconnectMaxDelay() {
+        return Long.parseLong(properties.getProperty("websocket.reconnect.max.delay.ms", "30000"));
+    }
+    
+    public String getWebSocketAlertDestination() {
+        return properties.getProperty("websocket.alerts.destination", "").trim();
+    }
+    
+    public int getWebSocketDispatchBufferSize() {
+        return Integer.parseInt(properties.getProperty("websocket.dispatch.buffer.size", "1024"));
+    }
+    
+    public String getWebSocketDispatchOverflowPolicy() {
+        return properties.getProperty("websocket.dispatch.overflow.policy", "COALESCE");
+    }
+    
+    public int getWebSocketDispatchMaxPendingPerDestination() {
+        return Integer.parseInt(properties.getProperty("websocket.dispatch.max.pending.per.destination", "16"));
+    }
+    
     public String getAppTitle() {
         return properties.getProperty("app.title", "Weather Desktop");
     }
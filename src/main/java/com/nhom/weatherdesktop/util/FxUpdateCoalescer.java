@@ -0,0 +1,114 @@
+package com.nhom.weatherdesktop.util;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Batches high-frequency updates to the JavaFX thread
+ * Only the latest value per key is kept, and pending values are flushed at most once per
+ * JavaFX pulse by an AnimationTimer, so FX work is capped at the frame rate instead of the
+ * message rate. Values overwritten before a flush are counted as dropped
+ */
+public class FxUpdateCoalescer<K, V> {
+    
+    private static final Logger logger = LoggerFactory.getLogger(FxUpdateCoalescer.class);
+    
+    private final Consumer<V> sink;
+    private final Map<K, V> pending = new ConcurrentHashMap<>();
+    private final Map<K, LongAdder> droppedByKey = new ConcurrentHashMap<>();
+    private final LongAdder droppedByRemovedKeys = new LongAdder();
+    private final LongAdder flushed = new LongAdder();
+    private final AtomicBoolean timerRequested = new AtomicBoolean();
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            flush();
+        }
+    };
+    
+    /**
+     * @param sink receives each flushed value on the JavaFX thread
+     */
+    public FxUpdateCoalescer(Consumer<V> sink) {
+        this.sink = sink;
+    }
+    
+    /**
+     * Offer a value from any thread; it replaces a not yet flushed value for the same key
+     */
+    public void submit(K key, V value) {
+        if (pending.put(key, value) != null) {
+            droppedByKey.computeIfAbsent(key, k -> new LongAdder()).increment();
+        }
+        
+        // The timer only runs while there is something to flush
+        if (timerRequested.compareAndSet(false, true)) {
+            Platform.runLater(timer::start);
+        }
+    }
+    
+    /**
+     * Discard a key that will not be updated any more: its pending value and its counter
+     * (its drops still count towards the total)
+     */
+    public void remove(K key) {
+        pending.remove(key);
+        LongAdder dropped = droppedByKey.remove(key);
+        if (dropped != null) {
+            droppedByRemovedKeys.add(dropped.sum());
+        }
+    }
+    
+    /**
+     * Deliver everything pending (runs on the JavaFX thread, once per pulse)
+     */
+    private void flush() {
+        // Clear the flag first: a value submitted during the flush restarts the timer
+        timerRequested.set(false);
+        
+        boolean delivered = false;
+        for (K key : pending.keySet()) {
+            V value = pending.remove(key);
+            if (value == null) {
+                continue;
+            }
+            delivered = true;
+            flushed.increment();
+            try {
+                sink.accept(value);
+            } catch (Exception e) {
+                logger.error("UI update failed for {}: {}", key, e.getMessage(), e);
+            }
+        }
+        
+        if (!delivered) {
+            timer.stop();
+        }
+    }
+    
+    // ========== Metrics ==========
+    
+    /**
+     * Intermediate values replaced before they reached the UI
+     */
+    public long getDroppedCount(K key) {
+        LongAdder dropped = droppedByKey.get(key);
+        return dropped != null ? dropped.sum() : 0;
+    }
+    
+    public long getDroppedTotal() {
+        return droppedByRemovedKeys.sum() + droppedByKey.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+    
+    public long getFlushedCount() {
+        return flushed.sum();
+    }
+}
@@ -0,0 +1,139 @@
+package com.nhom.weatherdesktop.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * App-wide background task executor backed by virtual threads
+ * Tasks are named for logging and can be grouped by screen so they are cancelled
+ * when the user navigates away; everything is shut down on logout or exit
+ */
+public class TaskExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskExecutor.class);
+    private static final String GLOBAL_SCOPE = "global";
+    private static TaskExecutor instance;
+
+    private final Map<String, Set<TrackedTask>> tasksByScope = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+
+    private TaskExecutor() {
+    }
+
+    public static synchronized TaskExecutor getInstance() {
+        if (instance == null) {
+            instance = new TaskExecutor();
+        }
+        return instance;
+    }
+
+    /**
+     * Lazily (re)create the executor, so tasks can be submitted again after a logout
+     */
+    private synchronized ExecutorService executor() {
+        if (executor == null || executor.isShutdown()) {
+            executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("task-", 0).factory());
+        }
+        return executor;
+    }
+
+    /**
+     * Run a task that is not tied to any screen
+     */
+    public Future<?> submit(String name, Runnable task) {
+        return submitForScreen(GLOBAL_SCOPE, name, task);
+    }
+
+    /**
+     * Run a task that is cancelled when the given screen is left
+     */
+    public Future<?> submitForScreen(String screen, String name, Runnable task) {
+        TrackedTask trackedTask = new TrackedTask(screen, name, task);
+        tasksByScope.computeIfAbsent(screen, key -> ConcurrentHashMap.newKeySet()).add(trackedTask);
+        executor().execute(trackedTask);
+        return trackedTask;
+    }
+
+    /**
+     * Run a task after a delay; cancelling it before the delay elapses skips it entirely
+     */
+    public Future<?> schedule(String name, Duration delay, Runnable task) {
+        return scheduleForScreen(GLOBAL_SCOPE, name, delay, task);
+    }
+
+    public Future<?> scheduleForScreen(String screen, String name, Duration delay, Runnable task) {
+        return submitForScreen(screen, name, () -> {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            task.run();
+        });
+    }
+
+    /**
+     * Cancel (and interrupt) all pending and running tasks of a screen
+     */
+    public void cancelScreen(String screen) {
+        Set<TrackedTask> tasks = tasksByScope.remove(screen);
+        if (tasks == null || tasks.isEmpty()) {
+            return;
+        }
+
+        logger.debug("Cancelling {} task(s) for screen: {}", tasks.size(), screen);
+        tasks.forEach(task -> task.cancel(true));
+    }
+
+    /**
+     * Cancel all tasks and stop the executor (logout or application exit)
+     */
+    public synchronized void shutdown() {
+        tasksByScope.keySet().forEach(this::cancelScreen);
+
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+            logger.info("Task executor shut down");
+        }
+    }
+
+    /**
+     * FutureTask that names its thread, logs failures and removes itself from its scope when done
+     */
+    private final class TrackedTask extends FutureTask<Void> {
+
+        private final String scope;
+
+        TrackedTask(String scope, String name, Runnable task) {
+            super(() -> {
+                Thread.currentThread().setName("task-" + name);
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    logger.error("Task '{}' failed: {}", name, e.getMessage(), e);
+                    throw e;
+                }
+            }, null);
+            this.scope = scope;
+        }
+
+        @Override
+        protected void done() {
+            Set<TrackedTask> tasks = tasksByScope.get(scope);
+            if (tasks != null) {
+                tasks.remove(this);
+            }
+        }
+    }
+}
@@ -7,7 +7,7 @@ import java.time.ZonedDateTime;
 
 public class TimeUtil {
     
-    private static final ZoneId VIETNAM_ZONE = ZoneId.of("Asia/Ho_Chi_Minh");
+    public static final ZoneId VIETNAM_ZONE = ZoneId.of("Asia/Ho_Chi_Minh");
     
     /**
      * Calculate time ago string from createdAt instant
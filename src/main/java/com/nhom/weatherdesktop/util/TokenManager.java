@@ -4,6 +4,8 @@ import java.util.prefs.Preferences;
 
 /**
  * Manages JWT tokens using Java Preferences API for persistence
+ * Tokens are saved by the login and the background refresh and read by every request thread, so
+ * the pair is published as one immutable snapshot: a reader sees either the old or the new pair
  */
 public class TokenManager {
     private static TokenManager instance;
@@ -12,15 +14,14 @@ public class TokenManager {
     private static final String REFRESH_TOKEN_KEY = "refreshToken";
     
     private final Preferences prefs;
-    private String accessToken;
-    private String refreshToken;
+    private volatile Tokens tokens = Tokens.NONE;
     
     private TokenManager() {
         prefs = Preferences.userRoot().node(PREFS_NODE);
         loadTokens();
     }
     
-    public static TokenManager getInstance() {
+    public static synchronized TokenManager getInstance() {
         if (instance == null) {
             instance = new TokenManager();
         }
@@ -28,13 +29,11 @@ public class TokenManager {
     }
     
     private void loadTokens() {
-        accessToken = prefs.get(ACCESS_TOKEN_KEY, null);
-        refreshToken = prefs.get(REFRESH_TOKEN_KEY, null);
+        tokens = new Tokens(prefs.get(ACCESS_TOKEN_KEY, null), prefs.get(REFRESH_TOKEN_KEY, null));
     }
     
-    public void saveTokens(String accessToken, String refreshToken) {
-        this.accessToken = accessToken;
-        this.refreshToken = refreshToken;
+    public synchronized void saveTokens(String accessToken, String refreshToken) {
+        tokens = new Tokens(accessToken, refreshToken);
         
         if (accessToken != null) {
             prefs.put(ACCESS_TOKEN_KEY, accessToken);
@@ -45,25 +44,38 @@ public class TokenManager {
     }
     
     public String getAccessToken() {
-        return accessToken;
+        return tokens.accessToken();
     }
     
     public String getRefreshToken() {
-        return refreshToken;
+        return tokens.refreshToken();
     }
     
     public boolean isAuthenticated() {
-        return accessToken != null && !accessToken.isEmpty();
+        return tokens.isAuthenticated();
     }
     
-    public void clearTokens() {
-        accessToken = null;
-        refreshToken = null;
+    public synchronized void clearTokens() {
+        tokens = Tokens.NONE;
         prefs.remove(ACCESS_TOKEN_KEY);
         prefs.remove(REFRESH_TOKEN_KEY);
     }
     
+    /**
+     * Header for the current access token, or null when not authenticated; read it once and
+     * branch on null rather than calling isAuthenticated() first, a logout may happen in between
+     */
     public String getAuthorizationHeader() {
-        return accessToken != null ? "Bearer " + accessToken : null;
+        Tokens current = tokens;
+        return current.isAuthenticated() ? "Bearer " + current.accessToken() : null;
+    }
+    
+    private record Tokens(String accessToken, String refreshToken) {
+        
+        static final Tokens NONE = new Tokens(null, null);
+        
+        boolean isAuthenticated() {
+            return accessToken != null && !accessToken.isEmpty();
+        }
     }
 }
@@ -0,0 +1,239 @@
+package com.nhom.weatherdesktop.websocket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Pipeline stage between the WebSocket reader and the message handlers
+ * The socket thread only enqueues decoded frames into a bounded ring buffer; a dedicated
+ * dispatcher thread deserializes and delivers them, so a burst of messages never stalls
+ * the reader. What happens when producers outrun the dispatcher depends on the policy.
+ * Frames are grouped by their subscription id (the destination when there is none)
+ */
+public class FrameDispatcher {
+    
+    private static final Logger logger = LoggerFactory.getLogger(FrameDispatcher.class);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    
+    public enum OverflowPolicy {
+        /** Keep at most N pending frames per subscription and drop the oldest beyond that (and when the buffer is full) */
+        DROP_OLDEST,
+        /** Never drop: the socket reader waits for room, pushing back on the server through TCP */
+        BLOCK,
+        /** Latest value wins for subscriptions that ask for it (weather readings); the others (alerts) are never coalesced */
+        COALESCE
+    }
+    
+    private final RingBuffer<Envelope> buffer;
+    private final OverflowPolicy policy;
+    private final int maxPendingPerKey;
+    private final Predicate<String> coalescible;
+    private final Consumer<StompFrame> handler;
+    private final Map<String, Deque<Envelope>> pendingByKey = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> droppedByKey = new ConcurrentHashMap<>();
+    private final LongAdder droppedByRemovedKeys = new LongAdder();
+    
+    private volatile boolean running;
+    private volatile boolean consumerParked;
+    private volatile Thread thread;
+    
+    /**
+     * @param coalescible tells, by subscription id, which frames only matter as the latest value (COALESCE)
+     */
+    public FrameDispatcher(int capacity, OverflowPolicy policy, int maxPendingPerKey,
+                           Predicate<String> coalescible, Consumer<StompFrame> handler) {
+        this.buffer = new RingBuffer<>(capacity);
+        this.policy = policy;
+        this.maxPendingPerKey = Math.max(1, maxPendingPerKey);
+        this.coalescible = coalescible;
+        this.handler = handler;
+    }
+    
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        Thread dispatchThread = new Thread(this::dispatchLoop, "stomp-dispatch");
+        dispatchThread.setDaemon(true);
+        thread = dispatchThread;
+        dispatchThread.start();
+        logger.debug("Frame dispatcher started: capacity={}, policy={}", buffer.capacity(), policy);
+    }
+    
+    /**
+     * Stop the dispatcher thread and discard anything still queued
+     */
+    public synchronized void stop() {
+        running = false;
+        Thread current = thread;
+        thread = null;
+        if (current != null) {
+            LockSupport.unpark(current);
+        }
+        while (buffer.poll() != null) {
+            // discard
+        }
+        pendingByKey.clear();
+    }
+    
+    /**
+     * Queue a frame for dispatch; called on the socket reader thread
+     */
+    public void submit(StompFrame frame) {
+        if (!running) {
+            return;
+        }
+        
+        String key = frame.getHeader("subscription");
+        if (key == null) {
+            key = frame.getHeader("destination");
+        }
+        Envelope envelope = new Envelope(frame, key != null ? key : "");
+        
+        int cap = pendingCap(envelope.key);
+        if (cap > 0) {
+            Deque<Envelope> pending = pendingByKey.computeIfAbsent(envelope.key, k -> new ConcurrentLinkedDeque<>());
+            pending.addLast(envelope);
+            while (pending.size() > cap) {
+                Envelope oldest = pending.pollFirst();
+                if (oldest != null && oldest != envelope) {
+                    drop(oldest);
+                }
+            }
+        }
+        
+        while (!buffer.offer(envelope)) {
+            if (!running) {
+                return;
+            }
+            if (policy == OverflowPolicy.DROP_OLDEST) {
+                Envelope oldest = buffer.poll();
+                if (oldest != null) {
+                    forget(oldest);
+                    drop(oldest);
+                }
+            } else {
+                // BLOCK / COALESCE: wait for the dispatcher to make room
+                wakeConsumer();
+                LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+            }
+        }
+        
+        wakeConsumer();
+    }
+    
+    /**
+     * How many frames of a subscription may wait in the buffer (0 = no limit)
+     */
+    private int pendingCap(String key) {
+        return switch (policy) {
+            case DROP_OLDEST -> maxPendingPerKey;
+            case COALESCE -> coalescible.test(key) ? 1 : 0;
+            case BLOCK -> 0;
+        };
+    }
+    
+    private void dispatchLoop() {
+        // A restarted dispatcher gets a new thread; an old one still winding down exits here
+        while (running && thread == Thread.currentThread()) {
+            Envelope envelope = buffer.poll();
+            if (envelope == null) {
+                consumerParked = true;
+                // Re-check after announcing so a frame offered in between is not missed
+                if (buffer.size() == 0 && running) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                consumerParked = false;
+                continue;
+            }
+            
+            forget(envelope);
+            if (envelope.dropped) {
+                continue;
+            }
+            
+            try {
+                handler.accept(envelope.frame);
+            } catch (Exception e) {
+                logger.error("Frame handler failed for {}: {}", envelope.key, e.getMessage(), e);
+            }
+        }
+    }
+    
+    private void wakeConsumer() {
+        Thread consumer = thread;
+        if (consumerParked && consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+    }
+    
+    private void forget(Envelope envelope) {
+        if (pendingCap(envelope.key) > 0) {
+            Deque<Envelope> pending = pendingByKey.get(envelope.key);
+            if (pending != null) {
+                pending.remove(envelope);
+            }
+        }
+    }
+    
+    private void drop(Envelope envelope) {
+        envelope.dropped = true;
+        droppedByKey.computeIfAbsent(envelope.key, k -> new LongAdder()).increment();
+    }
+    
+    /**
+     * Forget the per-key state of a subscription that has ended; its drops still count towards the total
+     */
+    public void removeKey(String key) {
+        pendingByKey.remove(key);
+        LongAdder dropped = droppedByKey.remove(key);
+        if (dropped != null) {
+            droppedByRemovedKeys.add(dropped.sum());
+        }
+    }
+    
+    // ========== Metrics ==========
+    
+    public long getDroppedCount(String key) {
+        LongAdder dropped = droppedByKey.get(key);
+        return dropped != null ? dropped.sum() : 0;
+    }
+    
+    public long getDroppedTotal() {
+        return droppedByRemovedKeys.sum() + droppedByKey.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+    
+    public int getQueuedCount() {
+        return buffer.size();
+    }
+    
+    public OverflowPolicy getPolicy() {
+        return policy;
+    }
+    
+    /**
+     * Frame in the buffer; superseded frames are flagged instead of removed from the ring
+     */
+    private static final class Envelope {
+        final StompFrame frame;
+        final String key;
+        volatile boolean dropped;
+        
+        Envelope(StompFrame frame, String key) {
+            this.frame = frame;
+            this.key = key;
+        }
+    }
+}
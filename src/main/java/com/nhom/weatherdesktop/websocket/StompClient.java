@@ -1,38 +1,189 @@
 package com.nhom.weatherdesktop.websocket;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.nhom.weatherdesktop.dto.response.AlertResponse;
-import com.nhom.weatherdesktop.dto.response.WeatherDataResponse;
+import com.nhom.weatherdesktop.util.AppConfig;
+import com.nhom.weatherdesktop.util.FxUpdateCoalescer;
 import javafx.application.Platform;
 import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.framing.CloseFrame;
 import org.java_websocket.handshake.ServerHandshake;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.net.URI;
-import java.util.HashMap;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * STOMP client over WebSocket for real-time weather data and alerts
+ * Every SUBSCRIBE carries its own typed handler; MESSAGE frames are routed by their
+ * "subscription" header, so several screens can follow different stations at once.
+ * Heart-beats are negotiated on CONNECT; a watchdog reconnects when the server goes quiet.
+ * Lost connections are re-established with exponential backoff, and every registered
+ * subscription is replayed once the new session is CONNECTED.
+ * MESSAGE frames are handed to a {@link FrameDispatcher}, so deserialization and delivery
+ * never run on the socket reader thread.
+ * The client is safe to use from any thread: outgoing frames go through a lock-free queue
+ * drained by one sender at a time, and each subscription remembers on which session its
+ * SUBSCRIBE went out, so racing subscribe / unsubscribe / replay calls never lose or duplicate one.
+ * Bulk (un)subscriptions and replays pipeline their frames into a few WebSocket messages
  */
 public class StompClient {
     
+    private static final Logger logger = LoggerFactory.getLogger(StompClient.class);
     private static final ObjectMapper MAPPER = new ObjectMapper().findAndRegisterModules();
     private static final AtomicInteger subscriptionIdCounter = new AtomicInteger(0);
+    private static final String HEARTBEAT = "\n";
+    private static final long NOT_SENT = 0;
+    // Batched frames are split into WebSocket messages of about this size, below the common 8 KB server buffer
+    private static final int MAX_BATCH_CHARS = 7 * 1024;
+    private static StompClient instance;
     
-    private WebSocketClient webSocketClient;
-    private final Map<String, String> subscriptions = new HashMap<>(); // destination -> subscriptionId
-    private Consumer<WeatherDataResponse> weatherDataHandler;
-    private Consumer<AlertResponse> alertHandler;
-    private Consumer<Boolean> connectionStatusHandler;
-    private boolean connected = false;
+    // One daemon thread sends heart-beats, checks liveness and runs reconnect timers for all clients
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stomp-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    public enum ConnectionState {
+        DISCONNECTED,
+        CONNECTING,
+        CONNECTED,
+        RECONNECTING
+    }
+    
+    /**
+     * One SUBSCRIBE: the body type it is deserialized into and the handler it is delivered to
+     */
+    private static final class Subscription<T> {
+        final String id;
+        final String destination;
+        final Class<T> payloadType;
+        final Consumer<T> handler;
+        final boolean latestOnly; // only the newest message not yet rendered (readings), not every one (events)
+        // Guarded by the subscription itself: session the SUBSCRIBE was sent on, whether it is part of
+        // a batch not queued yet, and whether it was dropped
+        private long sentSession = NOT_SENT;
+        private boolean batching;
+        private boolean cancelled;
+        
+        Subscription(String id, String destination, Class<T> payloadType, Consumer<T> handler, boolean latestOnly) {
+            this.id = id;
+            this.destination = destination;
+            this.payloadType = payloadType;
+            this.handler = handler;
+            this.latestOnly = latestOnly;
+        }
+    }
+    
+    /**
+     * One socket and the STOMP session on it; events of a replaced session are ignored
+     */
+    private static final class Session {
+        final long id;
+        final WebSocketClient socket;
+        volatile boolean connected;
+        
+        Session(long id, WebSocketClient socket) {
+            this.id = id;
+            this.socket = socket;
+        }
+    }
+    
+    private record Outbound(Session session, String frame) {
+    }
+    
+    private record MessageTap(Predicate<String> destinations, Consumer<StompFrame> consumer) {
+    }
+    
+    private final AtomicLong sessionCounter = new AtomicLong(NOT_SENT);
+    private volatile Session session;
+    // Dispatch table of wanted subscriptions (subscriptionId -> subscription); survives reconnects
+    private final Map<String, Subscription<?>> subscriptions = new ConcurrentHashMap<>();
+    private volatile Consumer<Boolean> connectionStatusHandler;
+    private final List<MessageTap> messageTaps = new CopyOnWriteArrayList<>();
+    private final AtomicReference<ConnectionState> state = new AtomicReference<>(ConnectionState.DISCONNECTED);
+    private String serverUrl;
+    
+    // Sending: any thread enqueues, whoever bumps the counter from zero drains
+    private final ConcurrentLinkedQueue<Outbound> outbound = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger sendersInProgress = new AtomicInteger();
+    
+    // Reconnecting
+    private boolean autoReconnect;
+    private int reconnectAttempt;
+    private ScheduledFuture<?> reconnectTask;
+    
+    // Heart-beating
+    private volatile long lastReceivedAt;
+    private volatile long lastSentAt;
+    private ScheduledFuture<?> heartbeatTask;
+    
+    // Message dispatching
+    private final FrameDispatcher dispatcher;
+    // Latest-only subscriptions reach the UI at most once per frame, keyed by subscription id
+    private final FxUpdateCoalescer<String, Runnable> latestUpdates = new FxUpdateCoalescer<>(Runnable::run);
+    
+    private StompClient() {
+        AppConfig config = AppConfig.getInstance();
+        FrameDispatcher.OverflowPolicy policy;
+        try {
+            policy = FrameDispatcher.OverflowPolicy.valueOf(config.getWebSocketDispatchOverflowPolicy().trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Unknown dispatch overflow policy '{}', using COALESCE", config.getWebSocketDispatchOverflowPolicy());
+            policy = FrameDispatcher.OverflowPolicy.COALESCE;
+        }
+        this.dispatcher = new FrameDispatcher(config.getWebSocketDispatchBufferSize(), policy,
+            config.getWebSocketDispatchMaxPendingPerDestination(), this::isLatestOnly, this::handleMessageFrame);
+    }
     
     /**
-     * Connect to WebSocket server
+     * The one connection shared by every screen; each screen registers its own subscriptions
      */
-    public void connect(String wsUrl) {
+    public static synchronized StompClient getInstance() {
+        if (instance == null) {
+            instance = new StompClient();
+        }
+        return instance;
+    }
+    
+    /**
+     * Connect to WebSocket server and keep the connection up until {@link #disconnect()}
+     */
+    public synchronized void connect(String wsUrl) {
+        serverUrl = wsUrl;
+        autoReconnect = true;
+        reconnectAttempt = 0;
+        dispatcher.start();
+        openSocket();
+    }
+    
+    /**
+     * Open a new socket to the server URL with the current access token
+     */
+    private synchronized void openSocket() {
+        state.set(ConnectionState.CONNECTING);
         try {
+            String wsUrl = serverUrl;
+            
             // Add token as query parameter (workaround for Java-WebSocket header limitation)
             String accessToken = com.nhom.weatherdesktop.session.SessionContext.accessToken();
             if (accessToken != null && !accessToken.isBlank()) {
@@ -41,193 +192,599 @@ public class StompClient {
             }
             
             final String finalWsUrl = wsUrl;
-            webSocketClient = new WebSocketClient(new URI(finalWsUrl)) {
+            WebSocketClient socket = new WebSocketClient(new URI(finalWsUrl)) {
                 
                 @Override
                 public void onOpen(ServerHandshake handshake) {
-                    sendConnectFrame();
+                    Session owner = ownSession(this);
+                    if (owner != null) {
+                        sendConnectFrame(owner);
+                    }
                 }
                 
                 @Override
                 public void onMessage(String message) {
-                    handleStompMessage(message);
+                    Session owner = ownSession(this);
+                    if (owner != null) {
+                        // Any traffic, including heart-beat EOLs, proves the link is alive
+                        lastReceivedAt = System.currentTimeMillis();
+                        handleStompFrame(owner, StompFrame.decode(message));
+                    }
+                }
+                
+                @Override
+                public void onMessage(ByteBuffer bytes) {
+                    Session owner = ownSession(this);
+                    if (owner != null) {
+                        lastReceivedAt = System.currentTimeMillis();
+                        // Binary frames are parsed and deserialized straight from the received bytes
+                        handleStompFrame(owner, StompFrame.decode(bytes));
+                    }
                 }
                 
                 @Override
                 public void onClose(int code, String reason, boolean remote) {
-                    connected = false;
-                    notifyConnectionStatus(false);
+                    handleClose(this, code, reason, remote);
                 }
                 
                 @Override
                 public void onError(Exception ex) {
-                    // Error is silently handled
+                    logger.warn("WebSocket error: {}", ex.getMessage());
                 }
             };
             
-            webSocketClient.connect();
-            
+            session = new Session(sessionCounter.incrementAndGet(), socket);
+            socket.connect();
+        
         } catch (Exception e) {
-            // Connection error is silently handled
+            logger.error("Failed to connect WebSocket: {}", e.getMessage(), e);
+            scheduleReconnect();
         }
     }
     
+    /**
+     * The session of a socket, or null when the socket has been replaced
+     */
+    private Session ownSession(WebSocketClient socket) {
+        Session current = session;
+        return current != null && current.socket == socket ? current : null;
+    }
+    
     /**
      * Send STOMP CONNECT frame with authentication
      */
-    private void sendConnectFrame() {
+    private void sendConnectFrame(Session target) {
         String accessToken = com.nhom.weatherdesktop.session.SessionContext.accessToken();
         
+        AppConfig config = AppConfig.getInstance();
         StompFrame connectFrame = new StompFrame("CONNECT")
                 .header("accept-version", "1.2")
-                .header("host", "localhost");
+                .header("host", "localhost")
+                .header("heart-beat", config.getWebSocketHeartbeatOutgoing() + "," + config.getWebSocketHeartbeatIncoming());
         
         if (accessToken != null && !accessToken.isBlank()) {
             connectFrame.header("Authorization", "Bearer " + accessToken);
         }
         
-        send(connectFrame.encode());
+        send(target, connectFrame.encode());
     }
     
     /**
-     * Subscribe to a STOMP topic
+     * Subscribe to a STOMP topic; every message is delivered to the handler on the JavaFX thread
+     * The subscription is registered even while disconnected and (re)sent on every CONNECTED
+     * @return subscription id, used to unsubscribe
      */
-    public void subscribe(String destination, String type) {
-        if (!connected) {
-            return;
+    public <T> String subscribe(String destination, Class<T> payloadType, Consumer<T> handler) {
+        return register(destination, payloadType, handler, false);
+    }
+    
+    /**
+     * Subscribe to a topic of readings where only the newest value matters:
+     * messages superseded before the UI renders them are skipped
+     * @return subscription id, used to unsubscribe
+     */
+    public <T> String subscribeLatest(String destination, Class<T> payloadType, Consumer<T> handler) {
+        return register(destination, payloadType, handler, true);
+    }
+    
+    /**
+     * Subscribe one handler to many topics at once (e.g. the alerts of every station);
+     * the SUBSCRIBE frames are pipelined into as few WebSocket messages as possible
+     * @return subscription ids, in the order of the destinations
+     */
+    public <T> List<String> subscribeAll(Collection<String> destinations, Class<T> payloadType, Consumer<T> handler) {
+        List<Subscription<?>> batch = new ArrayList<>(destinations.size());
+        List<String> subscriptionIds = new ArrayList<>(destinations.size());
+        for (String destination : destinations) {
+            Subscription<T> subscription = newSubscription(destination, payloadType, handler, false);
+            batch.add(subscription);
+            subscriptionIds.add(subscription.id);
         }
         
+        sendSubscribes(session, batch);
+        return subscriptionIds;
+    }
+    
+    private <T> String register(String destination, Class<T> payloadType, Consumer<T> handler, boolean latestOnly) {
+        Subscription<T> subscription = newSubscription(destination, payloadType, handler, latestOnly);
+        
+        // Not connected: it is replayed on connect
+        sendSubscribes(session, List.of(subscription));
+        return subscription.id;
+    }
+    
+    private <T> Subscription<T> newSubscription(String destination, Class<T> payloadType, Consumer<T> handler, boolean latestOnly) {
         String subscriptionId = "sub-" + subscriptionIdCounter.getAndIncrement();
-        subscriptions.put(destination, subscriptionId);
+        Subscription<T> subscription = new Subscription<>(subscriptionId, destination, payloadType, handler, latestOnly);
+        subscriptions.put(subscriptionId, subscription);
+        return subscription;
+    }
+    
+    /**
+     * Send, on a connected session, the SUBSCRIBEs that did not go out there yet;
+     * subscribe and replay may race for the same subscription, only one of them sends it
+     */
+    private void sendSubscribes(Session target, Collection<? extends Subscription<?>> batch) {
+        if (target == null || !target.connected) {
+            return;
+        }
         
-        StompFrame subscribeFrame = new StompFrame("SUBSCRIBE")
-                .header("id", subscriptionId)
-                .header("destination", destination);
+        List<Subscription<?>> claimed = new ArrayList<>();
+        StringBuilder frames = new StringBuilder();
+        for (Subscription<?> subscription : batch) {
+            synchronized (subscription) {
+                if (subscription.cancelled || subscription.sentSession == target.id) {
+                    continue;
+                }
+                subscription.sentSession = target.id;
+                subscription.batching = true;
+            }
+            claimed.add(subscription);
+            frames.append(new StompFrame("SUBSCRIBE")
+                    .header("id", subscription.id)
+                    .header("destination", subscription.destination)
+                    .encode());
+            if (frames.length() >= MAX_BATCH_CHARS) {
+                send(target, frames.toString());
+                frames.setLength(0);
+            }
+        }
+        if (!frames.isEmpty()) {
+            send(target, frames.toString());
+        }
         
-        send(subscribeFrame.encode());
+        // An unsubscribe racing the batch leaves its UNSUBSCRIBE to us, so it is queued after the SUBSCRIBE
+        List<String> cancelled = new ArrayList<>();
+        for (Subscription<?> subscription : claimed) {
+            synchronized (subscription) {
+                subscription.batching = false;
+                if (subscription.cancelled) {
+                    cancelled.add(subscription.id);
+                }
+            }
+        }
+        sendUnsubscribes(target, cancelled);
     }
     
     /**
-     * Unsubscribe from a STOMP topic
+     * Unsubscribe; messages of the subscription still in flight are no longer delivered
      */
-    public void unsubscribe(String destination) {
-        String subscriptionId = subscriptions.remove(destination);
-        if (subscriptionId == null) {
-            return;
+    public void unsubscribe(String subscriptionId) {
+        if (subscriptionId != null) {
+            unsubscribeAll(List.of(subscriptionId));
         }
+    }
+    
+    /**
+     * Unsubscribe many subscriptions at once, pipelining the UNSUBSCRIBE frames
+     */
+    public void unsubscribeAll(Collection<String> subscriptionIds) {
+        Session current = session;
+        List<String> sent = new ArrayList<>(subscriptionIds.size());
         
-        StompFrame unsubscribeFrame = new StompFrame("UNSUBSCRIBE")
-                .header("id", subscriptionId);
+        for (String subscriptionId : subscriptionIds) {
+            Subscription<?> subscription = subscriptionId != null ? subscriptions.remove(subscriptionId) : null;
+            if (subscription == null) {
+                continue;
+            }
+            forgetSubscription(subscriptionId);
+            
+            synchronized (subscription) {
+                subscription.cancelled = true;
+                // Only the session that got the SUBSCRIBE needs an UNSUBSCRIBE; one still being batched is
+                // unsubscribed by the batch sender
+                if (current != null && current.connected && subscription.sentSession == current.id && !subscription.batching) {
+                    sent.add(subscriptionId);
+                }
+            }
+        }
         
-        send(unsubscribeFrame.encode());
+        sendUnsubscribes(current, sent);
     }
     
     /**
-     * Handle incoming STOMP messages
+     * Drop what the dispatcher and the UI coalescer keep per subscription id
      */
-    private void handleStompMessage(String message) {
-        StompFrame frame = StompFrame.decode(message);
+    private void forgetSubscription(String subscriptionId) {
+        dispatcher.removeKey(subscriptionId);
+        latestUpdates.remove(subscriptionId);
+    }
+    
+    private void sendUnsubscribes(Session target, List<String> subscriptionIds) {
+        StringBuilder frames = new StringBuilder();
+        for (String subscriptionId : subscriptionIds) {
+            frames.append(new StompFrame("UNSUBSCRIBE")
+                    .header("id", subscriptionId)
+                    .encode());
+            if (frames.length() >= MAX_BATCH_CHARS) {
+                send(target, frames.toString());
+                frames.setLength(0);
+            }
+        }
+        if (!frames.isEmpty()) {
+            send(target, frames.toString());
+        }
+    }
+    
+    /**
+     * Re-send every registered subscription on a fresh session, pipelined
+     */
+    private void replaySubscriptions(Session target) {
+        sendSubscribes(target, subscriptions.values());
+        if (!subscriptions.isEmpty()) {
+            logger.info("Replayed {} subscription(s)", subscriptions.size());
+        }
+    }
+    
+    /**
+     * Handle incoming STOMP frames (text or binary)
+     */
+    private void handleStompFrame(Session owner, StompFrame frame) {
         if (frame == null) {
             return;
         }
         
         switch (frame.getCommand()) {
             case "CONNECTED":
-                connected = true;
+                synchronized (this) {
+                    if (session != owner) {
+                        return; // replaced while the CONNECTED was on its way
+                    }
+                    owner.connected = true;
+                    state.set(ConnectionState.CONNECTED);
+                    reconnectAttempt = 0;
+                }
+                startHeartbeat(frame.getHeader("heart-beat"));
+                replaySubscriptions(owner);
                 notifyConnectionStatus(true);
                 break;
-                
+            
             case "MESSAGE":
-                handleMessageFrame(frame);
+                // Late messages of a removed subscription are dropped here, so they do not bring
+                // back its per-key state in the dispatcher
+                String subscriptionId = frame.getHeader("subscription");
+                if (subscriptionId != null && !subscriptions.containsKey(subscriptionId)) {
+                    return;
+                }
+                tap(frame);
+                // Only the headers are parsed here; the body is read on the dispatcher thread
+                dispatcher.submit(frame);
                 break;
-                
+            
             case "ERROR":
+                // The server closes the connection after an ERROR; onClose takes care of reconnecting
+                logger.warn("STOMP error: {}", frame.getHeader("message"));
                 break;
-                
+            
             default:
                 break;
         }
     }
     
+    private void tap(StompFrame frame) {
+        String destination = frame.getHeader("destination");
+        if (destination == null) {
+            return;
+        }
+        for (MessageTap tap : messageTaps) {
+            if (tap.destinations().test(destination)) {
+                try {
+                    tap.consumer().accept(frame);
+                } catch (Exception e) {
+                    logger.error("Message tap failed for {}: {}", destination, e.getMessage(), e);
+                }
+            }
+        }
+    }
+    
     /**
-     * Handle MESSAGE frame - parse weather data or alert
+     * Handle MESSAGE frame - route it to its subscription's handler (runs on the dispatcher thread)
      */
     private void handleMessageFrame(StompFrame frame) {
-        String destination = frame.getHeader("destination");
-        String body = frame.getBody();
+        String subscriptionId = frame.getHeader("subscription");
+        Subscription<?> subscription = subscriptionId != null ? subscriptions.get(subscriptionId) : null;
         
-        if (destination == null || body == null) {
-            return;
+        if (subscription == null || !frame.hasBody()) {
+            return; // unknown or already unsubscribed
         }
         
         try {
-            if (destination.contains("/weather")) {
-                WeatherDataResponse weatherData = MAPPER.readValue(body, WeatherDataResponse.class);
-                notifyWeatherData(weatherData);
-                
-            } else if (destination.contains("/alerts")) {
-                AlertResponse alert = MAPPER.readValue(body, AlertResponse.class);
-                notifyAlert(alert);
-            }
-            
+            deliver(subscription, frame);
         } catch (Exception e) {
-            // Message parsing error is silently handled
+            logger.debug("Failed to parse message from {}: {}", subscription.destination, e.getMessage());
         }
     }
     
+    private <T> void deliver(Subscription<T> subscription, StompFrame frame) throws IOException {
+        // Jackson reads the body straight out of the received frame (bytes or text)
+        T payload = frame.readBody(MAPPER, subscription.payloadType);
+        Runnable delivery = () -> {
+            if (subscriptions.get(subscription.id) == subscription) {
+                subscription.handler.accept(payload);
+            }
+        };
+        
+        if (subscription.latestOnly) {
+            latestUpdates.submit(subscription.id, delivery);
+        } else {
+            Platform.runLater(delivery);
+        }
+    }
+    
+    private boolean isLatestOnly(String subscriptionId) {
+        Subscription<?> subscription = subscriptions.get(subscriptionId);
+        return subscription != null && subscription.latestOnly;
+    }
+    
     /**
-     * Send raw message to WebSocket
+     * Queue a raw message for a session's socket and drain the queue unless another thread is at it
+     * Messages for a session that has been replaced or closed by the time they are drained are dropped
      */
-    private void send(String message) {
-        if (webSocketClient != null && webSocketClient.isOpen()) {
-            webSocketClient.send(message);
+    private void send(Session target, String message) {
+        if (target == null) {
+            return;
+        }
+        outbound.offer(new Outbound(target, message));
+        
+        if (sendersInProgress.getAndIncrement() != 0) {
+            return; // the active sender picks it up
         }
+        
+        int missed = 1;
+        do {
+            Outbound next;
+            while ((next = outbound.poll()) != null) {
+                WebSocketClient socket = next.session().socket;
+                if (next.session() == session && socket.isOpen()) {
+                    try {
+                        socket.send(next.frame());
+                        lastSentAt = System.currentTimeMillis();
+                    } catch (Exception e) {
+                        logger.debug("Failed to send frame: {}", e.getMessage());
+                    }
+                }
+            }
+            missed = sendersInProgress.addAndGet(-missed);
+        } while (missed != 0);
+    }
+    
+    // ========== Reconnecting ==========
+    
+    private void handleClose(WebSocketClient client, int code, String reason, boolean remote) {
+        synchronized (this) {
+            Session closed = ownSession(client);
+            if (closed == null) {
+                return; // an old connection replaced by a reconnect
+            }
+            logger.info("WebSocket closed: code={}, reason={}, remote={}", code, reason, remote);
+            stopHeartbeat();
+            closed.connected = false;
+            session = null;
+            state.set(ConnectionState.DISCONNECTED);
+            if (autoReconnect) {
+                scheduleReconnect();
+            }
+        }
+        notifyConnectionStatus(false);
     }
     
     /**
-     * Disconnect from WebSocket
+     * Schedule the next connection attempt with full-jitter exponential backoff
      */
-    public void disconnect() {
-        if (webSocketClient != null) {
-            webSocketClient.close();
+    private synchronized void scheduleReconnect() {
+        if (!autoReconnect || reconnectTask != null) {
+            return;
         }
-        connected = false;
-        subscriptions.clear();
+        
+        AppConfig config = AppConfig.getInstance();
+        long cap = Math.min(config.getWebSocketReconnectMaxDelay(),
+            config.getWebSocketReconnectBaseDelay() * (1L << Math.min(reconnectAttempt, 20)));
+        long delay = ThreadLocalRandom.current().nextLong(cap / 2, cap + 1);
+        reconnectAttempt++;
+        
+        state.set(ConnectionState.RECONNECTING);
+        logger.info("Reconnecting WebSocket in {} ms (attempt {})", delay, reconnectAttempt);
+        
+        reconnectTask = SCHEDULER.schedule(() -> {
+            synchronized (this) {
+                reconnectTask = null;
+                if (autoReconnect) {
+                    openSocket();
+                }
+            }
+        }, delay, TimeUnit.MILLISECONDS);
     }
     
-    // ========== Handlers ==========
-    
-    public void setWeatherDataHandler(Consumer<WeatherDataResponse> handler) {
-        this.weatherDataHandler = handler;
+    private synchronized void cancelReconnect() {
+        if (reconnectTask != null) {
+            reconnectTask.cancel(false);
+            reconnectTask = null;
+        }
     }
     
-    public void setAlertHandler(Consumer<AlertResponse> handler) {
-        this.alertHandler = handler;
+    /**
+     * Reconnect right away with the current access token (e.g. after it was refreshed);
+     * the registered subscriptions are replayed once the new session is established
+     */
+    public synchronized void reconnect() {
+        if (serverUrl == null || !autoReconnect) {
+            return;
+        }
+        
+        cancelReconnect();
+        closeSocket(false);
+        reconnectAttempt = 0;
+        openSocket();
     }
     
-    public void setConnectionStatusHandler(Consumer<Boolean> handler) {
-        this.connectionStatusHandler = handler;
+    /**
+     * Detach and close the current socket; its close event is ignored since it is no longer current
+     */
+    private synchronized void closeSocket(boolean abort) {
+        stopHeartbeat();
+        
+        Session closing = session;
+        session = null;
+        if (closing == null) {
+            return;
+        }
+        closing.connected = false;
+        WebSocketClient client = closing.socket;
+        if (abort) {
+            client.closeConnection(CloseFrame.ABNORMAL_CLOSE, "Heart-beat timeout");
+        } else {
+            client.close();
+        }
     }
     
-    private void notifyWeatherData(WeatherDataResponse data) {
-        if (weatherDataHandler != null) {
-            Platform.runLater(() -> weatherDataHandler.accept(data));
+    // ========== Heart-beating ==========
+    
+    /**
+     * Start heart-beating with the intervals negotiated in CONNECT / CONNECTED (STOMP 1.2):
+     * each side uses the larger of what one offers and the other wants, 0 meaning none
+     */
+    private synchronized void startHeartbeat(String serverHeartBeat) {
+        stopHeartbeat();
+        
+        long serverSends = 0;
+        long serverWants = 0;
+        if (serverHeartBeat != null) {
+            String[] values = serverHeartBeat.split(",");
+            try {
+                serverSends = Long.parseLong(values[0].trim());
+                serverWants = values.length > 1 ? Long.parseLong(values[1].trim()) : 0;
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring malformed heart-beat header: {}", serverHeartBeat);
+            }
+        }
+        
+        AppConfig config = AppConfig.getInstance();
+        long clientSends = config.getWebSocketHeartbeatOutgoing();
+        long clientWants = config.getWebSocketHeartbeatIncoming();
+        long sendEvery = clientSends > 0 && serverWants > 0 ? Math.max(clientSends, serverWants) : 0;
+        long expectEvery = clientWants > 0 && serverSends > 0 ? Math.max(clientWants, serverSends) : 0;
+        
+        if (sendEvery == 0 && expectEvery == 0) {
+            logger.debug("Heart-beating disabled");
+            return;
         }
+        
+        // Declare the link dead after missing a few heart-beats (network jitter delays single ones)
+        long deadAfter = expectEvery * config.getWebSocketHeartbeatMissedLimit();
+        long tick = Math.max(250, Math.min(sendEvery > 0 ? sendEvery : Long.MAX_VALUE,
+            expectEvery > 0 ? expectEvery : Long.MAX_VALUE) / 2);
+        
+        lastReceivedAt = System.currentTimeMillis();
+        lastSentAt = lastReceivedAt;
+        logger.info("Heart-beating: send every {} ms, expect every {} ms", sendEvery, expectEvery);
+        
+        heartbeatTask = SCHEDULER.scheduleAtFixedRate(() -> {
+            long now = System.currentTimeMillis();
+            
+            if (expectEvery > 0 && now - lastReceivedAt > deadAfter) {
+                handleDeadConnection(now - lastReceivedAt);
+                return;
+            }
+            
+            // Only beat when nothing else was sent recently
+            if (sendEvery > 0 && now - lastSentAt >= sendEvery - tick) {
+                send(session, HEARTBEAT);
+            }
+        }, tick, tick, TimeUnit.MILLISECONDS);
     }
     
-    private void notifyAlert(AlertResponse alert) {
-        if (alertHandler != null) {
-            Platform.runLater(() -> alertHandler.accept(alert));
+    private synchronized void stopHeartbeat() {
+        if (heartbeatTask != null) {
+            heartbeatTask.cancel(false);
+            heartbeatTask = null;
         }
     }
     
+    /**
+     * The server has been silent for too long: drop the (half-open) socket and reconnect
+     */
+    private synchronized void handleDeadConnection(long silentMillis) {
+        logger.warn("No data from server for {} ms, connection considered dead - reconnecting", silentMillis);
+        closeSocket(true);
+        state.set(ConnectionState.DISCONNECTED);
+        notifyConnectionStatus(false);
+        scheduleReconnect();
+    }
+    
+    /**
+     * Disconnect from WebSocket and stop reconnecting
+     */
+    public synchronized void disconnect() {
+        autoReconnect = false;
+        cancelReconnect();
+        closeSocket(false);
+        state.set(ConnectionState.DISCONNECTED);
+        subscriptions.keySet().forEach(this::forgetSubscription);
+        subscriptions.clear();
+        dispatcher.stop();
+    }
+    
+    // ========== Handlers ==========
+    
+    /**
+     * See every MESSAGE frame of the matching destinations before the dispatcher may coalesce or drop it
+     * (e.g. to record every reading); runs on the socket reader thread, so it must only hand the frame off
+     */
+    public void addMessageTap(Predicate<String> destinations, Consumer<StompFrame> tap) {
+        messageTaps.add(new MessageTap(destinations, tap));
+    }
+    
+    public void setConnectionStatusHandler(Consumer<Boolean> handler) {
+        this.connectionStatusHandler = handler;
+    }
+    
     private void notifyConnectionStatus(boolean status) {
-        if (connectionStatusHandler != null) {
-            Platform.runLater(() -> connectionStatusHandler.accept(status));
+        Consumer<Boolean> handler = connectionStatusHandler;
+        if (handler != null) {
+            Platform.runLater(() -> handler.accept(status));
         }
     }
     
     public boolean isConnected() {
-        return connected;
+        Session current = session;
+        return current != null && current.connected;
+    }
+    
+    public ConnectionState getState() {
+        return state.get();
+    }
+    
+    /**
+     * Messages of a subscription discarded by the dispatcher's overflow policy
+     */
+    public long getDroppedMessageCount(String subscriptionId) {
+        return dispatcher.getDroppedCount(subscriptionId);
+    }
+    
+    /**
+     * Messages of a latest-only subscription superseded before the UI rendered them
+     */
+    public long getCoalescedUpdateCount(String subscriptionId) {
+        return latestUpdates.getDroppedCount(subscriptionId);
     }
 }
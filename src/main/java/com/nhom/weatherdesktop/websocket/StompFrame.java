@@ -1,5 +1,12 @@
 package com.nhom.weatherdesktop.websocket;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -12,6 +19,14 @@ public class StompFrame {
     private final Map<String, String> headers;
     private String body;
     
+    // Decoded frames keep the body as a slice of the received text until it is needed as a String
+    private CharSequence source;
+    private int bodyStart;
+    private int bodyEnd;
+    
+    // Frames decoded from binary WebSocket messages keep the body as a slice of the received bytes
+    private ByteBuffer bodyBytes;
+    
     public StompFrame(String command) {
         this.command = command;
         this.headers = new HashMap<>();
@@ -25,6 +40,8 @@ public class StompFrame {
     
     public StompFrame body(String body) {
         this.body = body;
+        this.source = null;
+        this.bodyBytes = null;
         return this;
     }
     
@@ -32,16 +49,23 @@ public class StompFrame {
      * Convert to STOMP protocol string
      */
     public String encode() {
+        // CONNECT / CONNECTED headers are never escaped (STOMP 1.2)
+        boolean escape = !"CONNECT".equals(command) && !"CONNECTED".equals(command);
+        
         StringBuilder sb = new StringBuilder();
         sb.append(command).append("\n");
         
-        headers.forEach((key, value) -> 
-            sb.append(key).append(":").append(value).append("\n")
-        );
+        headers.forEach((key, value) -> {
+            appendHeaderText(sb, key, escape);
+            sb.append(":");
+            appendHeaderText(sb, value, escape);
+            sb.append("\n");
+        });
         
         sb.append("\n");
-        if (body != null && !body.isEmpty()) {
-            sb.append(body);
+        String frameBody = getBody();
+        if (frameBody != null && !frameBody.isEmpty()) {
+            sb.append(frameBody);
         }
         sb.append("\0"); // NULL terminator
         
@@ -49,55 +73,235 @@ public class StompFrame {
     }
     
     /**
-     * Parse STOMP frame from string
+     * Parse a STOMP frame in a single pass over the received text
+     * Only header names and values are copied; the body stays a slice of the input.
+     * A content-length header (in UTF-8 octets) delimits the body, otherwise it ends at the NULL terminator.
+     * Returns null for empty input and heart-beats (frames made of EOLs only)
      */
-    public static StompFrame decode(String rawFrame) {
-        if (rawFrame == null || rawFrame.isEmpty()) {
+    public static StompFrame decode(CharSequence rawFrame) {
+        if (rawFrame == null) {
             return null;
         }
         
-        // Remove NULL terminator
-        rawFrame = rawFrame.replace("\0", "");
+        int length = rawFrame.length();
+        int pos = 0;
         
-        String[] lines = rawFrame.split("\n");
-        if (lines.length == 0) {
+        // Skip heart-beat EOLs before the command
+        while (pos < length && (rawFrame.charAt(pos) == '\n' || rawFrame.charAt(pos) == '\r')) {
+            pos++;
+        }
+        if (pos >= length || rawFrame.charAt(pos) == '\0') {
             return null;
         }
         
         // First line is command
-        StompFrame frame = new StompFrame(lines[0]);
+        int lineEnd = indexOf(rawFrame, '\n', pos, length);
+        StompFrame frame = new StompFrame(rawFrame.subSequence(pos, trimCr(rawFrame, pos, lineEnd)).toString());
+        boolean unescape = !"CONNECTED".equals(frame.command) && !"CONNECT".equals(frame.command);
+        pos = lineEnd + 1;
         
-        int i = 1;
         // Parse headers until empty line
-        for (; i < lines.length; i++) {
-            if (lines[i].isEmpty()) {
-                i++;
+        while (pos < length) {
+            lineEnd = indexOf(rawFrame, '\n', pos, length);
+            int contentEnd = trimCr(rawFrame, pos, lineEnd);
+            if (contentEnd == pos) {
+                pos = lineEnd + 1;
                 break;
             }
             
-            int colonIndex = lines[i].indexOf(':');
-            if (colonIndex > 0) {
-                String key = lines[i].substring(0, colonIndex);
-                String value = lines[i].substring(colonIndex + 1);
-                frame.header(key, value);
+            int colonIndex = indexOf(rawFrame, ':', pos, contentEnd);
+            if (colonIndex > pos && colonIndex < contentEnd) {
+                String key = headerText(rawFrame, pos, colonIndex, unescape);
+                String value = headerText(rawFrame, colonIndex + 1, contentEnd, unescape);
+                // Repeated headers: only the first entry is used
+                frame.headers.putIfAbsent(key, value);
             }
+            pos = lineEnd + 1;
         }
         
         // Remaining is body
-        if (i < lines.length) {
-            StringBuilder bodyBuilder = new StringBuilder();
-            for (; i < lines.length; i++) {
-                bodyBuilder.append(lines[i]);
-                if (i < lines.length - 1) {
-                    bodyBuilder.append("\n");
-                }
+        int bodyStart = Math.min(pos, length);
+        int bodyEnd = bodyEnd(rawFrame, bodyStart, length, frame.getHeader("content-length"));
+        frame.source = rawFrame;
+        frame.bodyStart = bodyStart;
+        frame.bodyEnd = bodyEnd;
+        frame.body = null;
+        
+        return frame;
+    }
+    
+    /**
+     * Parse a STOMP frame from a binary WebSocket message without decoding it to text first
+     * Header lines are decoded as UTF-8 one by one; the body is kept as a slice of the buffer.
+     * The buffer's position and limit are left untouched
+     */
+    public static StompFrame decode(ByteBuffer rawFrame) {
+        if (rawFrame == null) {
+            return null;
+        }
+        
+        int length = rawFrame.limit();
+        int pos = rawFrame.position();
+        
+        // Skip heart-beat EOLs before the command
+        while (pos < length && (rawFrame.get(pos) == '\n' || rawFrame.get(pos) == '\r')) {
+            pos++;
+        }
+        if (pos >= length || rawFrame.get(pos) == 0) {
+            return null;
+        }
+        
+        // First line is command
+        int lineEnd = indexOf(rawFrame, (byte) '\n', pos, length);
+        StompFrame frame = new StompFrame(utf8(rawFrame, pos, trimCr(rawFrame, pos, lineEnd)));
+        boolean unescape = !"CONNECTED".equals(frame.command) && !"CONNECT".equals(frame.command);
+        pos = lineEnd + 1;
+        
+        // Parse headers until empty line
+        while (pos < length) {
+            lineEnd = indexOf(rawFrame, (byte) '\n', pos, length);
+            int contentEnd = trimCr(rawFrame, pos, lineEnd);
+            if (contentEnd == pos) {
+                pos = lineEnd + 1;
+                break;
+            }
+            
+            int colonIndex = indexOf(rawFrame, (byte) ':', pos, contentEnd);
+            if (colonIndex > pos && colonIndex < contentEnd) {
+                String key = utf8(rawFrame, pos, colonIndex);
+                String value = utf8(rawFrame, colonIndex + 1, contentEnd);
+                frame.headers.putIfAbsent(
+                    headerText(key, 0, key.length(), unescape),
+                    headerText(value, 0, value.length(), unescape)
+                );
+            }
+            pos = lineEnd + 1;
+        }
+        
+        // Remaining is body: content-length octets, else up to the NULL terminator
+        int bodyStart = Math.min(pos, length);
+        int bodyEnd = indexOf(rawFrame, (byte) 0, bodyStart, length);
+        String contentLength = frame.getHeader("content-length");
+        if (contentLength != null) {
+            try {
+                bodyEnd = (int) Math.min(length, bodyStart + Long.parseLong(contentLength.trim()));
+            } catch (NumberFormatException ignored) {
+                // Malformed content-length: keep the NULL terminator
             }
-            frame.body(bodyBuilder.toString());
         }
         
+        frame.bodyBytes = rawFrame.slice(bodyStart, bodyEnd - bodyStart);
+        frame.body = null;
+        
         return frame;
     }
     
+    private static int indexOf(ByteBuffer bytes, byte target, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes.get(i) == target) {
+                return i;
+            }
+        }
+        return to;
+    }
+    
+    private static int trimCr(ByteBuffer bytes, int start, int end) {
+        return end > start && bytes.get(end - 1) == '\r' ? end - 1 : end;
+    }
+    
+    private static String utf8(ByteBuffer bytes, int start, int end) {
+        if (bytes.hasArray()) {
+            return new String(bytes.array(), bytes.arrayOffset() + start, end - start, StandardCharsets.UTF_8);
+        }
+        byte[] copy = new byte[end - start];
+        bytes.get(start, copy);
+        return new String(copy, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * End of the body: content-length octets when given, else the NULL terminator (or end of input)
+     */
+    private static int bodyEnd(CharSequence raw, int start, int length, String contentLength) {
+        if (contentLength != null) {
+            try {
+                long octets = Long.parseLong(contentLength.trim());
+                int pos = start;
+                while (octets > 0 && pos < length) {
+                    char c = raw.charAt(pos);
+                    if (Character.isHighSurrogate(c) && pos + 1 < length && Character.isLowSurrogate(raw.charAt(pos + 1))) {
+                        octets -= 4;
+                        pos += 2;
+                    } else {
+                        octets -= c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+                        pos++;
+                    }
+                }
+                return pos;
+            } catch (NumberFormatException ignored) {
+                // Malformed content-length: fall back to the NULL terminator
+            }
+        }
+        return indexOf(raw, '\0', start, length);
+    }
+    
+    private static int indexOf(CharSequence text, char target, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (text.charAt(i) == target) {
+                return i;
+            }
+        }
+        return to;
+    }
+    
+    private static int trimCr(CharSequence text, int start, int end) {
+        return end > start && text.charAt(end - 1) == '\r' ? end - 1 : end;
+    }
+    
+    /**
+     * Copy a header name/value, decoding the STOMP 1.2 escapes (\r \n \c \\) when present
+     */
+    private static String headerText(CharSequence raw, int start, int end, boolean unescape) {
+        if (!unescape || indexOf(raw, '\\', start, end) == end) {
+            return raw.subSequence(start, end).toString();
+        }
+        
+        StringBuilder sb = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = raw.charAt(i);
+            if (c == '\\' && i + 1 < end) {
+                char next = raw.charAt(++i);
+                switch (next) {
+                    case 'r' -> sb.append('\r');
+                    case 'n' -> sb.append('\n');
+                    case 'c' -> sb.append(':');
+                    case '\\' -> sb.append('\\');
+                    default -> sb.append(c).append(next); // undefined escape, keep as-is
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+    
+    private static void appendHeaderText(StringBuilder sb, String text, boolean escape) {
+        if (!escape) {
+            sb.append(text);
+            return;
+        }
+        
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\r' -> sb.append("\\r");
+                case '\n' -> sb.append("\\n");
+                case ':' -> sb.append("\\c");
+                case '\\' -> sb.append("\\\\");
+                default -> sb.append(c);
+            }
+        }
+    }
+    
     public String getCommand() {
         return command;
     }
@@ -106,16 +310,132 @@ public class StompFrame {
         return headers.get(key);
     }
     
+    /**
+     * Body as a String (materialized on first call for decoded frames)
+     */
     public String getBody() {
+        if (body == null && bodyBytes != null) {
+            body = utf8(bodyBytes, 0, bodyBytes.limit());
+        } else if (body == null && source != null) {
+            body = source.subSequence(bodyStart, bodyEnd).toString();
+        }
         return body;
     }
     
+    /**
+     * Whether the frame has a non-empty body
+     */
+    public boolean hasBody() {
+        if (body != null) {
+            return !body.isEmpty();
+        }
+        return bodyBytes != null ? bodyBytes.hasRemaining() : bodyEnd > bodyStart;
+    }
+    
+    /**
+     * Deserialize the JSON body with the cheapest source available:
+     * the received bytes for binary frames, a reader over the received text otherwise
+     */
+    public <T> T readBody(ObjectMapper mapper, Class<T> type) throws IOException {
+        if (body == null && bodyBytes != null) {
+            if (bodyBytes.hasArray()) {
+                return mapper.readValue(bodyBytes.array(), bodyBytes.arrayOffset(), bodyBytes.limit(), type);
+            }
+            return mapper.readValue(new ByteBufferInputStream(bodyBytes.duplicate()), type);
+        }
+        return mapper.readValue(bodyReader(), type);
+    }
+    
+    /**
+     * Reader over the body without copying it (e.g. for Jackson)
+     */
+    public Reader bodyReader() {
+        if (body == null && bodyBytes != null) {
+            getBody();
+        }
+        if (body == null && source != null) {
+            return new CharSequenceReader(source, bodyStart, bodyEnd);
+        }
+        String frameBody = body != null ? body : "";
+        return new CharSequenceReader(frameBody, 0, frameBody.length());
+    }
+    
     @Override
     public String toString() {
         return "StompFrame{" +
                 "command='" + command + '\'' +
                 ", headers=" + headers +
-                ", body='" + body + '\'' +
+                ", body='" + getBody() + '\'' +
                 '}';
     }
+    
+    /**
+     * InputStream over the remaining bytes of a (direct) ByteBuffer
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        
+        private final ByteBuffer buffer;
+        
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+        
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+        
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+    
+    /**
+     * Reader over a range of a CharSequence
+     */
+    private static final class CharSequenceReader extends Reader {
+        
+        private final CharSequence text;
+        private final int end;
+        private int pos;
+        
+        CharSequenceReader(CharSequence text, int start, int end) {
+            this.text = text;
+            this.pos = start;
+            this.end = end;
+        }
+        
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (pos >= end) {
+                return -1;
+            }
+            int count = Math.min(length, end - pos);
+            if (text instanceof String string) {
+                string.getChars(pos, pos + count, buffer, offset);
+            } else {
+                for (int i = 0; i < count; i++) {
+                    buffer[offset + i] = text.charAt(pos + i);
+                }
+            }
+            pos += count;
+            return count;
+        }
+        
+        @Override
+        public int read() {
+            return pos < end ? text.charAt(pos++) : -1;
+        }
+        
+        @Override
+        public void close() {
+            pos = end;
+        }
+    }
 }
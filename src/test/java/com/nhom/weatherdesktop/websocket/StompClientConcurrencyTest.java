@@ -0,0 +1,247 @@
+package com.nhom.weatherdesktop.websocket;
+
+import org.java_websocket.WebSocket;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Races subscribe / subscribeAll / unsubscribeAll / reconnect against a loopback STOMP server and
+ * checks that every session sees each SUBSCRIBE at most once, every UNSUBSCRIBE after its SUBSCRIBE,
+ * and that the last session ends up with exactly the subscriptions the client still holds
+ */
+class StompClientConcurrencyTest {
+    
+    private static final int WORKERS = 8;
+    private static final int RECONNECTS = 25;
+    private static final long TIMEOUT_MILLIS = 10_000;
+    
+    private LoopbackStompServer server;
+    private StompClient client;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new LoopbackStompServer();
+        server.start();
+        assertTrue(server.started.await(5, TimeUnit.SECONDS), "loopback server did not start");
+        
+        client = StompClient.getInstance();
+        client.connect("ws://localhost:" + server.getPort());
+        awaitTrue(client::isConnected, "client did not connect");
+    }
+    
+    @AfterEach
+    void tearDown() throws Exception {
+        client.disconnect();
+        server.stop(1000);
+    }
+    
+    @Test
+    void racingSubscriptionsAndReconnectsAreNeitherLostNorDuplicated() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(WORKERS + 1);
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        
+        List<Future<List<String>>> workers = new ArrayList<>();
+        for (int w = 0; w < WORKERS; w++) {
+            int worker = w;
+            workers.add(pool.submit(() -> {
+                go.await();
+                return exercise(worker, running);
+            }));
+        }
+        Future<?> reconnector = pool.submit(() -> {
+            go.await();
+            try {
+                for (int i = 0; i < RECONNECTS; i++) {
+                    client.reconnect();
+                    // Mostly let the replay run into the workers, sometimes cut it short
+                    if (ThreadLocalRandom.current().nextInt(4) > 0) {
+                        awaitTrue(client::isConnected, "client did not reconnect");
+                    }
+                    Thread.sleep(ThreadLocalRandom.current().nextInt(1, 15));
+                }
+            } finally {
+                running.set(false);
+            }
+            return null;
+        });
+        
+        go.countDown();
+        reconnector.get(60, TimeUnit.SECONDS);
+        Set<String> expected = new HashSet<>();
+        for (Future<List<String>> worker : workers) {
+            expected.addAll(worker.get(10, TimeUnit.SECONDS));
+        }
+        pool.shutdown();
+        
+        // Settle on one more session, which must get every remaining subscription replayed once
+        client.reconnect();
+        awaitTrue(client::isConnected, "client did not reconnect");
+        awaitTrue(() -> expected.equals(server.activeOnLatest()), "replayed subscriptions did not settle");
+        
+        assertTrue(server.errors.isEmpty(), () -> "protocol errors: " + server.errors);
+        assertEquals(expected, server.activeOnLatest());
+        assertTrue(server.sessions.size() > RECONNECTS / 2, "the run should have gone through many sessions");
+    }
+    
+    /**
+     * One worker's random mix of operations, until the reconnects are done
+     * @return the ids it still holds at the end
+     */
+    private List<String> exercise(int worker, AtomicBoolean running) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<String> held = new ArrayList<>();
+        
+        for (int i = 0; running.get(); i++) {
+            int op = random.nextInt(10);
+            if (op < 3) {
+                held.add(client.subscribe("/topic/w" + worker + "/s" + i, String.class, payload -> { }));
+            } else if (op < 6) {
+                List<String> destinations = new ArrayList<>();
+                int count = random.nextInt(1, 40);
+                for (int d = 0; d < count; d++) {
+                    // Long destinations so some batches are split over several WebSocket messages
+                    destinations.add("/topic/w" + worker + "/b" + i + "/" + d + "/" + "x".repeat(200));
+                }
+                held.addAll(client.subscribeAll(destinations, String.class, payload -> { }));
+            } else if (op < 9 && !held.isEmpty()) {
+                Collections.shuffle(held);
+                int count = random.nextInt(1, held.size() + 1);
+                List<String> removed = new ArrayList<>(held.subList(0, count));
+                held.subList(0, count).clear();
+                client.unsubscribeAll(removed);
+            } else if (!held.isEmpty()) {
+                client.unsubscribe(held.remove(held.size() - 1));
+            }
+        }
+        return held;
+    }
+    
+    private static void awaitTrue(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, message);
+            Thread.sleep(10);
+        }
+    }
+    
+    /**
+     * Minimal STOMP broker: answers CONNECT and tracks the active subscription ids of each session
+     */
+    private static final class LoopbackStompServer extends WebSocketServer {
+        
+        final CountDownLatch started = new CountDownLatch(1);
+        final List<String> errors = new CopyOnWriteArrayList<>();
+        final List<WebSocket> sessions = new CopyOnWriteArrayList<>();
+        private final Map<WebSocket, Set<String>> active = new ConcurrentHashMap<>();
+        
+        LoopbackStompServer() {
+            super(new InetSocketAddress("localhost", 0));
+            setReuseAddr(true);
+        }
+        
+        /**
+         * Subscription ids active on the newest session still open (replaced ones may close late)
+         */
+        Set<String> activeOnLatest() {
+            for (int i = sessions.size() - 1; i >= 0; i--) {
+                WebSocket connection = sessions.get(i);
+                if (connection.isOpen()) {
+                    Set<String> ids = active.get(connection);
+                    synchronized (ids) {
+                        return new HashSet<>(ids);
+                    }
+                }
+            }
+            return Set.of();
+        }
+        
+        @Override
+        public void onStart() {
+            started.countDown();
+        }
+        
+        @Override
+        public void onOpen(WebSocket connection, ClientHandshake handshake) {
+            active.put(connection, new LinkedHashSet<>());
+        }
+        
+        @Override
+        public void onMessage(WebSocket connection, String message) {
+            // Pipelined frames arrive together, each terminated by NUL; heart-beats are bare EOLs
+            for (String frame : message.split("\0")) {
+                String trimmed = frame.stripLeading();
+                if (!trimmed.isEmpty()) {
+                    handleFrame(connection, trimmed);
+                }
+            }
+        }
+        
+        private void handleFrame(WebSocket connection, String frame) {
+            String[] lines = frame.split("\n");
+            String command = lines[0];
+            String id = null;
+            for (int i = 1; i < lines.length && !lines[i].isEmpty(); i++) {
+                if (lines[i].startsWith("id:")) {
+                    id = lines[i].substring(3);
+                }
+            }
+            
+            Set<String> ids = active.get(connection);
+            switch (command) {
+                case "CONNECT" -> {
+                    sessions.add(connection);
+                    connection.send("CONNECTED\nversion:1.2\nheart-beat:0,0\n\n\0");
+                }
+                case "SUBSCRIBE" -> {
+                    synchronized (ids) {
+                        if (!ids.add(id)) {
+                            errors.add("duplicate SUBSCRIBE " + id);
+                        }
+                    }
+                }
+                case "UNSUBSCRIBE" -> {
+                    synchronized (ids) {
+                        if (!ids.remove(id)) {
+                            errors.add("UNSUBSCRIBE of unknown " + id);
+                        }
+                    }
+                }
+                default -> errors.add("unexpected frame " + command);
+            }
+        }
+        
+        @Override
+        public void onClose(WebSocket connection, int code, String reason, boolean remote) {
+        }
+        
+        @Override
+        public void onError(WebSocket connection, Exception ex) {
+        }
+    }
+}